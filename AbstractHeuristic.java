@@ -0,0 +1,20 @@
+/**
+ * Base class of the heuristics that provides the analyze/getSummary adapter
+ * The adapter keeps the result of the last analyzed text, so an instance used through it
+ * must not be shared between threads; the stateless score and evaluate methods can be
+ */
+public abstract class AbstractHeuristic implements Heuristic {
+    
+    private HeuristicScore lastScore;
+    
+    @Override
+    public double analyze(String text) {
+        lastScore = evaluate(text);
+        return lastScore.getValue();
+    }
+    
+    @Override
+    public String getSummary() {
+        return lastScore == null ? "" : lastScore.getExplanation();
+    }
+}
\ No newline at end of file
@@ -4,28 +4,26 @@
  * And the decryption formula: D(y) = a^(-1) * (y - b) mod m
  * where a and m must be coprime for the cipher to work
  */
-public class AffineCipher {
+public class AffineCipher implements Cipher {
     
     private int a;  // Multiplicative key
     private int b;  // Additive key
     private int modulus;
-    private int aInverse;
+    private SubstitutionTable table;  // Compiled decryption table for this key pair
     
     /**
      * Creates an Affine cipher with the specified keys
      * @param a The multiplicative key (must be coprime with alphabet size)
      * @param b The additive key
+     * @throws IllegalArgumentException If a is not coprime with the alphabet size
      */
     public AffineCipher(int a, int b) {
         this.modulus = CipherUtils.getAlphabetSize();
         this.a = a;
         this.b = b % modulus;
         
-        // Calculate multiplicative inverse of a modulo m
-        this.aInverse = modularInverse(a, modulus);
-        if (aInverse == -1) {
-            throw new IllegalArgumentException("The key 'a' must be coprime with alphabet size " + modulus);
-        }
+        // The compiler rejects an a without a multiplicative inverse modulo m
+        this.table = KeyCompiler.affine(a, b);
     }
     
     /**
@@ -33,6 +31,7 @@ public class AffineCipher {
      * @param plaintext The text to encrypt
      * @return The encrypted text
      */
+    @Override
     public String encrypt(String plaintext) {
         StringBuilder ciphertext = new StringBuilder();
         
@@ -58,46 +57,24 @@ public class AffineCipher {
     
     /**
      * Decrypts text using the Affine cipher
+     * The inverse transformation a^(-1) * (y - b) mod m is precomputed into a lookup table
      * @param ciphertext The text to decrypt
      * @return The decrypted text
      */
+    @Override
     public String decrypt(String ciphertext) {
-        StringBuilder plaintext = new StringBuilder();
-        
-        for (char c : ciphertext.toCharArray()) {
-            if (c == ' ') {
-                // Spaces pass through unchanged
-                plaintext.append(c);
-            } else {
-                int index = CipherUtils.getAlphabetIndex(c);
-                if (index != -1) {
-                    // Character is in our alphabet, apply inverse affine transformation
-                    int newIndex = (aInverse * (index - b + modulus)) % modulus;
-                    plaintext.append(CipherUtils.getAlphabetChar(newIndex));
-                } else {
-                    // Character not in alphabet, pass through unchanged
-                    plaintext.append(c);
-                }
-            }
-        }
-        
-        return plaintext.toString();
+        // Spaces and characters not in the alphabet map to themselves in the table
+        return table.apply(ciphertext);
     }
     
     /**
-     * Calculates the modular multiplicative inverse using Extended Euclidean Algorithm
-     * @param a The number to find inverse for
-     * @param m The modulus
-     * @return The multiplicative inverse, or -1 if it doesn't exist
+     * Decrypts pre-encoded text into a reusable buffer
+     * @param encoded The encoded ciphertext
+     * @param out The output buffer for the decrypted alphabet indices
      */
-    private int modularInverse(int a, int m) {
-        a = a % m;
-        for (int x = 1; x < m; x++) {
-            if ((a * x) % m == 1) {
-                return x;
-            }
-        }
-        return -1;  // Inverse doesn't exist
+    @Override
+    public void decryptInto(EncodedText encoded, byte[] out) {
+        table.applyInto(encoded, out);
     }
     
     /**
@@ -138,6 +115,14 @@ public class AffineCipher {
         return validKeys.stream().mapToInt(Integer::intValue).toArray();
     }
     
+    /**
+     * Gets the compiled decryption table for this key pair
+     * @return The decryption table
+     */
+    public SubstitutionTable getTable() {
+        return table;
+    }
+    
     /**
      * Gets the multiplicative key
      * @return The 'a' key value
@@ -158,6 +143,7 @@ public class AffineCipher {
      * Gets the key as a string representation
      * @return String representation of the key pair (a, b)
      */
+    @Override
     public String getKey() {
         return "(" + a + ", " + b + ")";
     }
@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Affine solver that recovers (a, b) by frequency alignment instead of trying every pair
+ * The most frequent ciphertext symbols are assumed to be encryptions of frequent English
+ * letters; each assumed pair of mappings gives two linear congruences
+ * c1 = a * p1 + b and c2 = a * p2 + b (mod alphabet size), which are solved for (a, b).
+ * The solutions are ranked by the log-likelihood of the whole ciphertext under each key
+ */
+public class AffineSolver {
+    
+    private static final int SIZE = CipherUtils.getAlphabetSize();
+    
+    // Plaintext letters assumed for the most frequent ciphertext symbols, most frequent first
+    private static final String FREQUENT_LETTERS = "etaoinsh";
+    
+    // Number of most frequent ciphertext symbols paired with the letters above
+    private static final int FREQUENT_SYMBOLS = 4;
+    
+    // Below this many ciphertext symbols, or this log-likelihood lead per symbol, the
+    // frequency alignment is not trusted
+    private static final int MIN_SYMBOLS = 20;
+    private static final double MIN_LEAD = 0.05;
+    
+    private final int[] counts = new int[SIZE];
+    private final int total;
+    private final int[] symbolsByFrequency;
+    
+    /**
+     * Creates a solver for one ciphertext
+     * @param encoded The encoded ciphertext
+     */
+    public AffineSolver(EncodedText encoded) {
+        for (byte index : encoded.getIndices()) {
+            if (index != EncodedText.PASS_THROUGH) {
+                counts[index]++;
+            }
+        }
+        this.total = encoded.getAlphabetCount();
+        
+        // Only symbols that actually occur can anchor a congruence
+        double[] frequencies = new double[SIZE];
+        int present = 0;
+        for (int index = 0; index < SIZE; index++) {
+            frequencies[index] = counts[index];
+            if (counts[index] > 0) {
+                present++;
+            }
+        }
+        this.symbolsByFrequency = TopKeyCollector.topIndices(frequencies, Math.min(FREQUENT_SYMBOLS, present));
+    }
+    
+    /**
+     * Solves a pair of assumed mappings p1 -> c1 and p2 -> c2 for every valid (a, b)
+     * a * (p1 - p2) = c1 - c2 has gcd(p1 - p2, size) solutions when the gcd divides
+     * c1 - c2, and none otherwise; only values of a coprime with the size are kept
+     * @return Each solution as {a, b}
+     */
+    public static List<int[]> solve(int p1, int c1, int p2, int c2) {
+        List<int[]> solutions = new ArrayList<>();
+        int dp = Math.floorMod(p1 - p2, SIZE);
+        int dc = Math.floorMod(c1 - c2, SIZE);
+        int g = gcd(dp, SIZE);
+        if (dc % g != 0) {
+            return solutions;
+        }
+        
+        // Reduce by the gcd, where dp becomes invertible
+        int modulus = SIZE / g;
+        int a0 = (int) ((long) (dc / g) * inverse(dp / g, modulus) % modulus);
+        for (int k = 0; k < g; k++) {
+            int a = a0 + k * modulus;
+            if (KeyCompiler.modularInverse(a) != -1) {
+                solutions.add(new int[] {a, Math.floorMod(c1 - a * p1, SIZE)});
+            }
+        }
+        return solutions;
+    }
+    
+    /**
+     * Proposes keys from every pairing of frequent ciphertext symbols with frequent letters
+     * @return The distinct canonical keys as {a, b}, most likely first
+     */
+    public List<int[]> candidateKeys() {
+        List<int[]> keys = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        
+        for (int i = 0; i < symbolsByFrequency.length; i++) {
+            for (int j = i + 1; j < symbolsByFrequency.length; j++) {
+                for (int x = 0; x < FREQUENT_LETTERS.length(); x++) {
+                    for (int y = 0; y < FREQUENT_LETTERS.length(); y++) {
+                        if (x == y) {
+                            continue;
+                        }
+                        int p1 = CipherUtils.getAlphabetIndex(FREQUENT_LETTERS.charAt(x));
+                        int p2 = CipherUtils.getAlphabetIndex(FREQUENT_LETTERS.charAt(y));
+                        for (int[] key : solve(p1, symbolsByFrequency[i], p2, symbolsByFrequency[j])) {
+                            if (KeySpace.isCanonicalAffine(key[0], key[1]) && seen.add(key[0] * SIZE + key[1])) {
+                                keys.add(key);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        
+        keys.sort((k1, k2) -> Double.compare(logLikelihood(k2[0], k2[1]), logLikelihood(k1[0], k1[1])));
+        return keys;
+    }
+    
+    /**
+     * Calculates the log-likelihood of the ciphertext decrypting to English under a key
+     * @param a The multiplicative key
+     * @param b The additive key
+     * @return The summed log-probability of every decrypted symbol
+     */
+    public double logLikelihood(int a, int b) {
+        byte[] indexMap = KeyCompiler.affine(a, b).getIndexMap();
+        double logLikelihood = 0.0;
+        for (int index = 0; index < SIZE; index++) {
+            if (counts[index] != 0) {
+                logLikelihood += counts[index] * VigenereSolver.symbolLogProbability(indexMap[index]);
+            }
+        }
+        return logLikelihood;
+    }
+    
+    /**
+     * Measures how clearly the best key stands out
+     * @param keys The candidate keys, most likely first
+     * @return The log-likelihood lead of the best key over the runner-up, per ciphertext
+     *         symbol; 0 when there are fewer than two keys
+     */
+    public double confidence(List<int[]> keys) {
+        if (keys.size() < 2 || total == 0) {
+            return 0.0;
+        }
+        double best = logLikelihood(keys.get(0)[0], keys.get(0)[1]);
+        double runnerUp = logLikelihood(keys.get(1)[0], keys.get(1)[1]);
+        return (best - runnerUp) / total;
+    }
+    
+    /**
+     * Checks whether the ciphertext is long enough and the best key clear enough to
+     * trust the frequency alignment
+     * @param keys The candidate keys, most likely first
+     * @return True if the top keys can be verified without sweeping every pair
+     */
+    public boolean isConfident(List<int[]> keys) {
+        return total >= MIN_SYMBOLS && confidence(keys) >= MIN_LEAD;
+    }
+    
+    /**
+     * Calculates the greatest common divisor
+     */
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+    
+    /**
+     * Calculates the inverse of a modulo m with the extended Euclidean algorithm
+     * a must be coprime with m
+     */
+    private static int inverse(int a, int m) {
+        int oldRemainder = a;
+        int remainder = m;
+        int oldCoefficient = 1;
+        int coefficient = 0;
+        while (remainder != 0) {
+            int quotient = oldRemainder / remainder;
+            int nextRemainder = oldRemainder - quotient * remainder;
+            oldRemainder = remainder;
+            remainder = nextRemainder;
+            int nextCoefficient = oldCoefficient - quotient * coefficient;
+            oldCoefficient = coefficient;
+            coefficient = nextCoefficient;
+        }
+        return Math.floorMod(oldCoefficient, m);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,343 @@
+/**
+ * Shared view of a text that every heuristic reads instead of re-deriving it
+ * Holds the letter of each position (case-insensitive, -1 where there is none), the
+ * letter histogram, and the cleaned lowercase text DictionaryHeuristic tokenizes together
+ * with its word boundaries. Each part is built on first request, so a heuristic that
+ * stops early does not pay for the parts it never reads. Buffers are reused across
+ * reset calls, and the arrays returned by the getters must not be modified
+ * A decryption can be given its file's WordLayout, so its words are split along the
+ * shared segments instead of searching the text for delimiters
+ */
+public class AnalyzedText {
+    
+    // Word delimiters of the default StringTokenizer
+    private static final String DELIMITERS = " \t\n\r\f";
+    
+    // Reusable view per thread, for search loops that analyze one text at a time
+    private static final ThreadLocal<AnalyzedText> PER_THREAD = ThreadLocal.withInitial(() -> new AnalyzedText(""));
+    
+    private String text;
+    private int length;
+    private boolean blank;
+    
+    // Letters and histogram
+    private boolean lettersReady;
+    private byte[] letters = new byte[0];
+    private final int[] letterCounts = new int[26];
+    private int totalLetters;
+    
+    // Cleaned text and words
+    private boolean wordsReady;
+    private char[] cleaned = new char[0];
+    private int cleanedLength;
+    private int[] wordStarts = new int[0];
+    private int[] wordEnds = new int[0];
+    private int[] wordSegments = new int[0];
+    private int wordCount;
+    private WordLayout layout;
+    
+    /**
+     * Creates a view of a text
+     * @param text The text, null counts as blank
+     */
+    public AnalyzedText(String text) {
+        reset(text);
+    }
+    
+    /**
+     * Gets the calling thread's reusable view, reset to a text
+     * The view stays valid until the same thread calls this method again
+     * @param text The text
+     * @return The view
+     */
+    public static AnalyzedText forThread(String text) {
+        return PER_THREAD.get().reset(text, null);
+    }
+    
+    /**
+     * Gets the calling thread's reusable view, reset to a decryption of a file
+     * The view stays valid until the same thread calls this method again
+     * @param text The decrypted text
+     * @param layout The word layout of the file, or null to find the words in the text
+     * @return The view
+     */
+    public static AnalyzedText forThread(String text, WordLayout layout) {
+        return PER_THREAD.get().reset(text, layout);
+    }
+    
+    /**
+     * Points this view at another text, keeping the buffers for reuse
+     * @param text The text, null counts as blank
+     * @return This view
+     */
+    public AnalyzedText reset(String text) {
+        return reset(text, null);
+    }
+    
+    /**
+     * Points this view at a decryption of a file, keeping the buffers for reuse
+     * @param text The decrypted text, null counts as blank
+     * @param layout The word layout of the file, or null to find the words in the text
+     * @return This view
+     */
+    public AnalyzedText reset(String text, WordLayout layout) {
+        this.text = text == null ? "" : text;
+        this.layout = layout;
+        this.length = this.text.length();
+        this.lettersReady = false;
+        this.wordsReady = false;
+        
+        // Same test as text.trim().isEmpty()
+        blank = true;
+        for (int i = 0; i < length && blank; i++) {
+            blank = this.text.charAt(i) <= ' ';
+        }
+        return this;
+    }
+    
+    /**
+     * Gets the text
+     * @return The text, empty if it was null
+     */
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * Gets the length of the text
+     * @return The number of chars
+     */
+    public int length() {
+        return length;
+    }
+    
+    /**
+     * Checks whether the text is empty or whitespace only, as text.trim().isEmpty()
+     * @return True if there is nothing to analyze
+     */
+    public boolean isBlank() {
+        return blank;
+    }
+    
+    /**
+     * Gets the lowercase letter at each position, doubling as the letter-only mask
+     * @return For each position the letter index ('a' = 0), or -1 if it holds no letter
+     */
+    public byte[] getLetters() {
+        buildLetters();
+        return letters;
+    }
+    
+    /**
+     * Gets the histogram of letters (case-insensitive)
+     * @return The count of each letter ('a' = 0)
+     */
+    public int[] getLetterCounts() {
+        buildLetters();
+        return letterCounts;
+    }
+    
+    /**
+     * Gets the number of letters
+     * @return The sum of the letter counts
+     */
+    public int getTotalLetters() {
+        buildLetters();
+        return totalLetters;
+    }
+    
+    /**
+     * Gets the cleaned text: lowercased, keeping only ASCII letters and whitespace
+     * @return The cleaned characters; only the first getCleanedLength() are used
+     */
+    public char[] getCleaned() {
+        buildWords();
+        return cleaned;
+    }
+    
+    /**
+     * Gets the length of the cleaned text
+     * @return The number of cleaned characters
+     */
+    public int getCleanedLength() {
+        buildWords();
+        return cleanedLength;
+    }
+    
+    /**
+     * Gets the cleaned text as a string
+     * @return The same string as text.toLowerCase().replaceAll("[^a-zA-Z\\s]", "")
+     */
+    public String getCleanedText() {
+        buildWords();
+        return new String(cleaned, 0, cleanedLength);
+    }
+    
+    /**
+     * Gets the number of non-empty words of the cleaned text
+     * @return The number of words
+     */
+    public int getWordCount() {
+        buildWords();
+        return wordCount;
+    }
+    
+    /**
+     * Gets where a word starts in the cleaned text
+     * @param word The word number
+     * @return The index of its first character
+     */
+    public int getWordStart(int word) {
+        buildWords();
+        return wordStarts[word];
+    }
+    
+    /**
+     * Gets where a word ends in the cleaned text
+     * @param word The word number
+     * @return One past the index of its last character
+     */
+    public int getWordEnd(int word) {
+        buildWords();
+        return wordEnds[word];
+    }
+    
+    /**
+     * Gets the segment of the file's word layout a word came from
+     * @param word The word number
+     * @return The segment number, or -1 without a layout
+     */
+    public int getWordSegment(int word) {
+        buildWords();
+        return wordSegments[word];
+    }
+    
+    /**
+     * Gets the word layout the words were split along
+     * @return The layout, or null if the words were found in the text
+     */
+    public WordLayout getLayout() {
+        return layout;
+    }
+    
+    /**
+     * Classifies every position and counts the letters
+     */
+    private void buildLetters() {
+        if (lettersReady) {
+            return;
+        }
+        if (letters.length < length) {
+            letters = new byte[length];
+        }
+        java.util.Arrays.fill(letterCounts, 0);
+        totalLetters = 0;
+        for (int i = 0; i < length; i++) {
+            int letter = LetterFrequencyHeuristic.letterIndex(text.charAt(i));
+            letters[i] = (byte) letter;
+            if (letter != -1) {
+                letterCounts[letter]++;
+                totalLetters++;
+            }
+        }
+        lettersReady = true;
+    }
+    
+    /**
+     * Cleans the text and finds its words, as StringTokenizer splits them, each trimmed
+     */
+    private void buildWords() {
+        if (wordsReady) {
+            return;
+        }
+        if (cleaned.length < length) {
+            cleaned = new char[length];
+            wordStarts = new int[(length + 1) / 2];
+            wordEnds = new int[(length + 1) / 2];
+            wordSegments = new int[(length + 1) / 2];
+        }
+        cleanedLength = 0;
+        wordCount = 0;
+        
+        if (layout != null) {
+            // Delimiters pass through, so each segment of the layout is one token
+            int position = 0;
+            for (int segment = 0; segment < layout.getSegmentCount(); segment++) {
+                for (; position < layout.getStart(segment); position++) {
+                    append(text.charAt(position));
+                }
+                int start = cleanedLength;
+                for (; position < layout.getEnd(segment); position++) {
+                    append(text.charAt(position));
+                }
+                addWord(start, cleanedLength, segment);
+            }
+            for (; position < length; position++) {
+                append(text.charAt(position));
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                append(text.charAt(i));
+            }
+            int position = 0;
+            while (position < cleanedLength) {
+                if (DELIMITERS.indexOf(cleaned[position]) != -1) {
+                    position++;
+                    continue;
+                }
+                int start = position;
+                while (position < cleanedLength && DELIMITERS.indexOf(cleaned[position]) == -1) {
+                    position++;
+                }
+                addWord(start, position, -1);
+            }
+        }
+        wordsReady = true;
+    }
+    
+    /**
+     * Appends the cleaned form of one character, if it has one
+     */
+    private void append(char c) {
+        char cleanedChar = cleanChar(c);
+        if (cleanedChar != 0) {
+            cleaned[cleanedLength++] = cleanedChar;
+        }
+    }
+    
+    /**
+     * Trims a token as String.trim() would and records it unless it trims to nothing
+     */
+    private void addWord(int start, int end, int segment) {
+        while (start < end && cleaned[start] <= ' ') {
+            start++;
+        }
+        while (end > start && cleaned[end - 1] <= ' ') {
+            end--;
+        }
+        if (end > start) {
+            wordStarts[wordCount] = start;
+            wordEnds[wordCount] = end;
+            wordSegments[wordCount] = segment;
+            wordCount++;
+        }
+    }
+    
+    /**
+     * Lowercases one character and keeps it only if it is an ASCII letter or whitespace
+     * @param c The character
+     * @return The cleaned character, or 0 if it is removed
+     */
+    static char cleanChar(char c) {
+        if (c < 128) {
+            if (c >= 'A' && c <= 'Z') {
+                return (char) (c + ('a' - 'A'));
+            }
+            boolean kept = (c >= 'a' && c <= 'z') || c == ' ' || c == '\t' || c == '\n'
+                           || c == 0x0B || c == '\f' || c == '\r';
+            return kept ? c : 0;
+        }
+        char lower = Character.toLowerCase(c);
+        return lower >= 'a' && lower <= 'z' ? lower : 0;
+    }
+}
\ No newline at end of file
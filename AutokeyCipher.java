@@ -0,0 +1,110 @@
+/**
+ * Implementation of the Autokey cipher
+ * Like Vigenère, but the key is only a short primer followed by the plaintext itself:
+ * once the primer is used up, each character is shifted by the plaintext character
+ * primer-length positions earlier. Only alphabet characters use up key characters
+ */
+public class AutokeyCipher implements Cipher {
+    
+    private String primer;
+    private int[] primerShifts;
+    
+    /**
+     * Creates an Autokey cipher with the specified primer
+     * @param primer The primer, made of alphabet characters
+     * @throws IllegalArgumentException If the primer is empty or has characters outside the alphabet
+     */
+    public AutokeyCipher(String primer) {
+        if (primer.isEmpty()) {
+            throw new IllegalArgumentException("The primer must not be empty");
+        }
+        this.primer = primer;
+        this.primerShifts = new int[primer.length()];
+        for (int i = 0; i < primer.length(); i++) {
+            primerShifts[i] = CipherUtils.getAlphabetIndex(primer.charAt(i));
+            if (primerShifts[i] == -1) {
+                throw new IllegalArgumentException("The primer must only contain alphabet characters");
+            }
+        }
+    }
+    
+    /**
+     * Encrypts text using the Autokey cipher
+     * @param plaintext The text to encrypt
+     * @return The encrypted text
+     */
+    @Override
+    public String encrypt(String plaintext) {
+        StringBuilder ciphertext = new StringBuilder(plaintext.length());
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        
+        // The next primer-length key shifts, refilled with plaintext as they are used
+        int[] keyShifts = primerShifts.clone();
+        int keyIndex = 0;
+        
+        for (char c : plaintext.toCharArray()) {
+            int index = CipherUtils.getAlphabetIndex(c);
+            if (index == -1) {
+                // Spaces and characters not in the alphabet pass through unchanged
+                ciphertext.append(c);
+            } else {
+                ciphertext.append(CipherUtils.getAlphabetChar((index + keyShifts[keyIndex]) % alphabetSize));
+                keyShifts[keyIndex] = index;
+                keyIndex = (keyIndex + 1) % keyShifts.length;
+            }
+        }
+        
+        return ciphertext.toString();
+    }
+    
+    /**
+     * Decrypts text using the Autokey cipher
+     * @param ciphertext The text to decrypt
+     * @return The decrypted text
+     */
+    @Override
+    public String decrypt(String ciphertext) {
+        EncodedText encoded = new EncodedText(ciphertext);
+        byte[] buffer = encoded.newBuffer();
+        decryptInto(encoded, buffer);
+        return encoded.decode(buffer);
+    }
+    
+    /**
+     * Decrypts pre-encoded text into a reusable buffer
+     * @param encoded The encoded ciphertext
+     * @param out The output buffer for the decrypted alphabet indices
+     */
+    @Override
+    public void decryptInto(EncodedText encoded, byte[] out) {
+        byte[] indices = encoded.getIndices();
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        int[] keyShifts = primerShifts.clone();
+        int keyIndex = 0;
+        
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            if (index == EncodedText.PASS_THROUGH) {
+                out[i] = EncodedText.PASS_THROUGH;
+            } else {
+                // The decrypted character becomes the key primer-length characters later
+                int plain = (index - keyShifts[keyIndex] + alphabetSize) % alphabetSize;
+                out[i] = (byte) plain;
+                keyShifts[keyIndex] = plain;
+                keyIndex++;
+                if (keyIndex == keyShifts.length) {
+                    keyIndex = 0;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gets the primer for this cipher
+     * @return The primer string
+     */
+    @Override
+    public String getKey() {
+        return primer;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+/**
+ * Primer search for the Autokey cipher with branch-and-bound pruning
+ * Each plaintext character decrypts with the plaintext character one primer-length
+ * earlier, so the characters at primer position r, r + L, r + 2L, ... form a chain that
+ * depends only on primer character r. Every (position, primer character) chain is
+ * decrypted and scored once by symbol log-likelihood; the score of a primer is then the
+ * sum of its chain scores, so primers are built one character at a time and a prefix is
+ * dropped as soon as even the best remaining characters cannot beat the kept primers
+ */
+public class AutokeyPrimerSearch {
+    
+    private static final int SIZE = CipherUtils.getAlphabetSize();
+    
+    private final int primerLength;
+    private final double[][] chainScores;   // [primer position][primer character]
+    private final int[][] choicesByScore;   // Primer characters of each position, best chain first
+    private final double[] bestRemaining;   // Sum of the best chain scores from each position on
+    private long visitedPrefixes;
+    
+    /**
+     * Decrypts and scores every chain of one primer length
+     * @param encoded The encoded ciphertext
+     * @param primerLength The primer length
+     */
+    public AutokeyPrimerSearch(EncodedText encoded, int primerLength) {
+        this.primerLength = primerLength;
+        this.chainScores = new double[primerLength][SIZE];
+        this.choicesByScore = new int[primerLength][];
+        this.bestRemaining = new double[primerLength + 1];
+        
+        // Only alphabet characters take part in the key stream
+        byte[] stream = new byte[encoded.getAlphabetCount()];
+        int length = 0;
+        for (byte index : encoded.getIndices()) {
+            if (index != EncodedText.PASS_THROUGH) {
+                stream[length++] = index;
+            }
+        }
+        
+        for (int position = 0; position < primerLength; position++) {
+            for (int shift = 0; shift < SIZE; shift++) {
+                double score = 0.0;
+                int previous = shift;
+                for (int i = position; i < length; i += primerLength) {
+                    int plain = (stream[i] - previous + SIZE) % SIZE;
+                    score += VigenereSolver.symbolLogProbability(plain);
+                    previous = plain;
+                }
+                chainScores[position][shift] = score;
+            }
+            choicesByScore[position] = TopKeyCollector.topIndices(chainScores[position], SIZE);
+        }
+        for (int position = primerLength - 1; position >= 0; position--) {
+            bestRemaining[position] = bestRemaining[position + 1] + chainScores[position][choicesByScore[position][0]];
+        }
+    }
+    
+    /**
+     * Finds the best primers by summed chain log-likelihood
+     * Primer indices are mixed-radix numbers over the alphabet, first character most significant
+     * @param collector Receives the best primer indices with their scores
+     */
+    public void search(TopKeyCollector collector) {
+        extend(0, 0, 0.0, collector);
+    }
+    
+    /**
+     * Tries every character at one primer position on top of a prefix, best chains first
+     */
+    private void extend(int position, long prefix, double prefixScore, TopKeyCollector collector) {
+        if (position == primerLength) {
+            collector.offer(prefix, prefixScore);
+            return;
+        }
+        for (int shift : choicesByScore[position]) {
+            double score = prefixScore + chainScores[position][shift];
+            // Later characters only score lower, so the rest of this position is pruned too
+            if (score + bestRemaining[position + 1] <= collector.getThreshold()) {
+                break;
+            }
+            visitedPrefixes++;
+            extend(position + 1, prefix * SIZE + shift, score, collector);
+        }
+    }
+    
+    /**
+     * Gets the number of primer prefixes extended so far
+     * @return The number of visited prefixes
+     */
+    public long getVisitedPrefixes() {
+        return visitedPrefixes;
+    }
+}
\ No newline at end of file
@@ -3,6 +3,8 @@ import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 
 /**
  * Main program that performs brute force search across all cipher types
@@ -38,7 +40,61 @@ public class BruteForceSearch {
      * Generates all possible Caesar cipher keys (all shifts from 1 to alphabet_size-1)
      */
     public static List<DecryptionCandidate> searchCaesar(String fileName, String cipherText) {
-        List<DecryptionCandidate> candidates = new ArrayList<>();
+        return searchCaesar(fileName, new EncodedText(cipherText));
+    }
+    
+    /**
+     * Generates all possible Caesar cipher keys against a pre-encoded ciphertext
+     */
+    public static List<DecryptionCandidate> searchCaesar(String fileName, EncodedText encoded) {
+        return searchCaesar(fileName, encoded, 0);
+    }
+    
+    /**
+     * Generates all possible Caesar cipher keys against a pre-encoded ciphertext
+     * With a positive shortlist size, every shift is scored from the ciphertext histogram
+     * and only the best shortlistSize shifts are decrypted and fully evaluated
+     */
+    public static List<DecryptionCandidate> searchCaesar(String fileName, EncodedText encoded, int shortlistSize) {
+        if (shortlistSize > 0) {
+            return searchCaesarByHistogram(fileName, encoded, shortlistSize);
+        }
+        return searchCaesar(Collections.singletonList(fileName), Collections.singletonList(encoded)).get(0);
+    }
+    
+    /**
+     * Generates all possible Caesar cipher keys once and applies each to every file
+     * @return The candidates of each file, in the order of the files
+     */
+    public static List<List<DecryptionCandidate>> searchCaesar(List<String> fileNames, List<EncodedText> encodedFiles) {
+        return searchCaesar(fileNames, encodedFiles, Integer.MAX_VALUE, null);
+    }
+    
+    /**
+     * Generates all possible Caesar cipher keys once and applies each to every file
+     * Without a cascade, each file keeps its best topCount candidates, and keys that cannot
+     * reach the current worst of them stop scoring early
+     * @param topCount The number of best candidates to keep per file
+     * @param cascade The scoring cascade to run the keys through, or null to score every key
+     * @return The candidates of each file, in the order of the files
+     */
+    public static List<List<DecryptionCandidate>> searchCaesar(List<String> fileNames, List<EncodedText> encodedFiles,
+                                                               int topCount, ScoringCascade cascade) {
+        if (cascade != null) {
+            List<Cipher> ciphers = new ArrayList<>();
+            List<SubstitutionTable> tables = new ArrayList<>();
+            List<List<String>> equivalentKeys = new ArrayList<>();
+            for (int shift = 1; shift < CipherUtils.getAlphabetSize(); shift++) {
+                CaesarCipher caesar = new CaesarCipher(shift);
+                ciphers.add(caesar);
+                tables.add(caesar.getTable());
+                equivalentKeys.add(KeySpace.caesarEquivalents(shift));
+            }
+            return searchCascaded("Caesar", "shift=", ciphers, tables, equivalentKeys, fileNames, encodedFiles, cascade);
+        }
+        
+        TopCandidateCollector[] collectors = newCollectors(fileNames.size(), topCount);
+        byte[][] buffers = newBuffers(encodedFiles);
         int alphabetSize = CipherUtils.getAlphabetSize();
         int totalKeys = alphabetSize - 1;
         
@@ -46,18 +102,58 @@ public class BruteForceSearch {
         
         for (int shift = 1; shift < alphabetSize; shift++) {
             CaesarCipher caesar = new CaesarCipher(shift);
-            String decrypted = caesar.decrypt(cipherText);
+            List<String> equivalentKeys = KeySpace.caesarEquivalents(shift);
             
-            DecryptionCandidate candidate = new DecryptionCandidate(
-                "Caesar", "shift=" + shift, fileName, cipherText, decrypted);
-            candidate.evaluate();
-            candidates.add(candidate);
+            for (int f = 0; f < encodedFiles.size(); f++) {
+                EncodedText encoded = encodedFiles.get(f);
+                caesar.decryptInto(encoded, buffers[f]);
+                
+                DecryptionCandidate candidate = new DecryptionCandidate(
+                    "Caesar", "shift=", caesar, fileNames.get(f), encoded);
+                if (candidate.evaluate(encoded.decode(buffers[f]), collectors[f].getThreshold())) {
+                    candidate.setEquivalentKeys(equivalentKeys);
+                    collectors[f].offer(candidate, shift);
+                }
+            }
             
             // Update progress
             progressBar.updateProgress(shift);
         }
         
         progressBar.forceUpdate();
+        return bestFirst(collectors);
+    }
+    
+    /**
+     * Scores every Caesar shift by permuting the ciphertext histogram, then decrypts
+     * and fully evaluates only the best-ranked shifts
+     */
+    private static List<DecryptionCandidate> searchCaesarByHistogram(String fileName, EncodedText encoded, int shortlistSize) {
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        int totalKeys = alphabetSize - 1;
+        
+        LetterHistogram histogram = new LetterHistogram(encoded);
+        int[] letterCounts = new int[26];
+        double[] scores = new double[totalKeys];
+        
+        ProgressBar progressBar = new ProgressBar("Caesar", totalKeys);
+        
+        for (int shift = 1; shift < alphabetSize; shift++) {
+            scores[shift - 1] = histogram.score(KeyCompiler.caesar(shift).getIndexMap(), letterCounts);
+            progressBar.updateProgress(shift);
+        }
+        
+        progressBar.forceUpdate();
+        
+        // Decrypt and fully evaluate only the shortlisted shifts
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        byte[] buffer = encoded.newBuffer();
+        for (int keyIndex : TopKeyCollector.topIndices(scores, shortlistSize)) {
+            int shift = keyIndex + 1;
+            DecryptionCandidate candidate = evaluateKey("Caesar", "shift=", fileName, encoded, new CaesarCipher(shift), buffer);
+            candidate.setEquivalentKeys(KeySpace.caesarEquivalents(shift));
+            candidates.add(candidate);
+        }
         return candidates;
     }
     
@@ -73,160 +169,683 @@ public class BruteForceSearch {
      * Parallelized version that uses multiple threads
      */
     public static List<DecryptionCandidate> searchVigenere(String fileName, String cipherText, int numThreads) {
-        List<DecryptionCandidate> candidates = Collections.synchronizedList(new ArrayList<>());
-        String alphabet = CipherUtils.ALPHABET;
+        return searchVigenere(fileName, new EncodedText(cipherText), numThreads);
+    }
+    
+    /**
+     * Generates all possible Vigenère cipher keys against a pre-encoded ciphertext
+     * With a positive shortlist size, every key is scored from per-column histograms and
+     * only the best shortlistSize keys of each length are decrypted and fully evaluated;
+     * fullAlphabet then widens 2-4 character keys from the common letters to the whole alphabet
+     */
+    public static List<DecryptionCandidate> searchVigenere(String fileName, EncodedText encoded, int numThreads,
+                                                           int shortlistSize, boolean fullAlphabet) {
+        if (shortlistSize > 0) {
+            return searchVigenereByHistogram(fileName, encoded, numThreads, shortlistSize, fullAlphabet);
+        }
+        return searchVigenere(fileName, encoded, numThreads);
+    }
+    
+    /**
+     * Generates all canonical Vigenère cipher keys against a pre-encoded ciphertext
+     * Single character keys are left to the Caesar and Affine searches and repeated
+     * shorter keys to their canonical key (see KeySpace)
+     * Each task walks its range of keys in odometer order, so consecutive keys differ in
+     * the last key character and only that column is re-decrypted and rescored
+     * @return Every candidate, best first
+     */
+    public static List<DecryptionCandidate> searchVigenere(String fileName, EncodedText encoded, int numThreads) {
+        return searchVigenere(Collections.singletonList(fileName), Collections.singletonList(encoded),
+                              numThreads, Integer.MAX_VALUE).get(0);
+    }
+    
+    /**
+     * Generates all canonical Vigenère cipher keys once and applies each to every file
+     * Each task keeps one odometer per file and advances them together, so the key is
+     * built once per step for all files. Each task also keeps its own bounded collector
+     * per file, and the collectors are merged once all tasks are done
+     * @param topCount The number of best candidates to keep per file
+     * @return The best candidates of each file, best first, in the order of the files
+     */
+    public static List<List<DecryptionCandidate>> searchVigenere(List<String> fileNames, List<EncodedText> encodedFiles,
+                                                                 int numThreads, int topCount) {
+        return searchVigenere(fileNames, encodedFiles, numThreads, topCount, null);
+    }
+    
+    /**
+     * Generates all canonical Vigenère cipher keys once and applies each to every file
+     * @param topCount The number of best candidates to keep per file
+     * @param cascade The scoring cascade to run the keys through, or null to fully score every key
+     * @return The best candidates of each file, best first, in the order of the files
+     */
+    public static List<List<DecryptionCandidate>> searchVigenere(List<String> fileNames, List<EncodedText> encodedFiles,
+                                                                 int numThreads, int topCount, ScoringCascade cascade) {
+        int files = encodedFiles.size();
         String commonLetters = "etaoinshrdlcumwfgypbvkjxqz";
         
-        // Calculate total keys
-        int totalKeys = alphabet.length() + // Single character
-                       (commonLetters.length() * commonLetters.length()) + // Two character
+        // Calculate total keys walked; single character keys are Caesar shifts
+        int totalKeys = (commonLetters.length() * commonLetters.length()) + // Two character
                        (commonLetters.length() * commonLetters.length() * commonLetters.length()) + // Three character
                        (commonLetters.length() * commonLetters.length() * commonLetters.length() * commonLetters.length()); // Four character
         
         ProgressBar progressBar = new ProgressBar("Vigenère", totalKeys);
         AtomicInteger testedKeys = new AtomicInteger(0);
         
+        // Keys are built from the common letters
+        int[] commonChoices = new int[commonLetters.length()];
+        for (int i = 0; i < commonChoices.length; i++) {
+            commonChoices[i] = CipherUtils.getAlphabetIndex(commonLetters.charAt(i));
+        }
+        
         // Create thread pool
         ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        List<Future<Void>> futures = new ArrayList<>();
+        List<Future<TopCandidateCollector[]>> futures = new ArrayList<>();
         
-        // Single character keys - distribute work across threads
-        int alphabetSize = alphabet.length();
-        int singleCharBatchSize = Math.max(1, alphabetSize / numThreads);
-        
-        for (int threadId = 0; threadId < numThreads; threadId++) {
-            final int startIdx = threadId * singleCharBatchSize;
-            final int endIdx = (threadId == numThreads - 1) ? alphabetSize : Math.min((threadId + 1) * singleCharBatchSize, alphabetSize);
+        // Distribute each key length's index range across threads
+        long lengthOffset = 0;
+        for (int keyLength = 2; keyLength <= KeySpace.MAX_VIGENERE_KEY_LENGTH; keyLength++) {
+            final int length = keyLength;
+            final int[] choices = commonChoices;
+            final long offset = lengthOffset;
+            int lengthTotal = (int) Math.pow(choices.length, keyLength);
+            lengthOffset += lengthTotal;
+            int batchSize = Math.max(1, lengthTotal / numThreads);
             
-            if (startIdx < endIdx) {
-                futures.add(executor.submit(() -> {
-                    for (int i = startIdx; i < endIdx; i++) {
-                        char c = alphabet.charAt(i);
-                        String key = String.valueOf(c);
-                        VigenereCipher vigenere = new VigenereCipher(key);
-                        String decrypted = vigenere.decrypt(cipherText);
-                        
-                        DecryptionCandidate candidate = new DecryptionCandidate(
-                            "Vigenère", "key=" + key, fileName, cipherText, decrypted);
-                        candidate.evaluate();
-                        candidates.add(candidate);
+            for (int threadId = 0; threadId < numThreads; threadId++) {
+                final int startIdx = threadId * batchSize;
+                final int endIdx = (threadId == numThreads - 1) ? lengthTotal : Math.min((threadId + 1) * batchSize, lengthTotal);
+                
+                if (startIdx < endIdx && cascade != null) {
+                    futures.add(executor.submit(() -> sweepVigenereCascaded(
+                        fileNames, encodedFiles, length, choices, startIdx, endIdx, offset, topCount,
+                        cascade, progressBar, testedKeys)));
+                } else if (startIdx < endIdx) {
+                    futures.add(executor.submit(() -> {
+                        VigenereOdometer[] odometers = new VigenereOdometer[files];
+                        TopCandidateCollector[] collectors = new TopCandidateCollector[files];
+                        for (int f = 0; f < files; f++) {
+                            odometers[f] = new VigenereOdometer(encodedFiles.get(f), length, choices);
+                            odometers[f].seek(startIdx);
+                            collectors[f] = new TopCandidateCollector(topCount);
+                        }
+                        GraphemeHeuristic graphemeHeuristic = GraphemeHeuristic.INSTANCE;
                         
-                        progressBar.updateProgress(testedKeys.incrementAndGet());
-                    }
-                    return null;
-                }));
+                        for (int idx = startIdx; idx < endIdx; idx++) {
+                            if (idx > startIdx) {
+                                for (VigenereOdometer odometer : odometers) {
+                                    odometer.advance();
+                                }
+                            }
+                            progressBar.updateProgress(testedKeys.incrementAndGet());
+                            if (!KeySpace.isCanonicalVigenere(idx, length, choices.length)) {
+                                continue;
+                            }
+                            
+                            // The key, cipher and equivalents are built once a file keeps the key
+                            VigenereCipher vigenere = null;
+                            List<String> equivalentKeys = null;
+                            for (int f = 0; f < files; f++) {
+                                VigenereOdometer odometer = odometers[f];
+                                double letterScore = odometer.getLetterFrequencyScore();
+                                double dictionaryScore = odometer.getDictionaryScore();
+                                
+                                // Skip the grapheme pass when even its best score cannot beat the kept candidates
+                                double bound = (letterScore + dictionaryScore + graphemeHeuristic.getMaxScore()) / 3.0;
+                                if (bound < collectors[f].getThreshold() - DecryptionCandidate.BOUND_SLACK) {
+                                    continue;
+                                }
+                                double graphemeScore = graphemeHeuristic.score(AnalyzedText.forThread(odometer.getPlaintext()));
+                                double score = DecryptionCandidate.combine(letterScore, dictionaryScore, graphemeScore);
+                                if (!collectors[f].accepts(score, offset + idx)) {
+                                    continue;
+                                }
+                                if (vigenere == null) {
+                                    String key = odometers[0].getKey();
+                                    vigenere = new VigenereCipher(key);
+                                    equivalentKeys = KeySpace.vigenereEquivalents(key);
+                                }
+                                DecryptionCandidate candidate = new DecryptionCandidate(
+                                    "Vigenère", "key=", vigenere, fileNames.get(f), encodedFiles.get(f));
+                                candidate.setScores(letterScore, dictionaryScore, graphemeScore);
+                                candidate.setEquivalentKeys(equivalentKeys);
+                                collectors[f].offer(candidate, offset + idx);
+                            }
+                        }
+                        return collectors;
+                    }));
+                }
+            }
+        }
+        
+        // Wait for all tasks to complete and merge their collectors
+        TopCandidateCollector[] best = newCollectors(files, topCount);
+        try {
+            for (Future<TopCandidateCollector[]> future : futures) {
+                TopCandidateCollector[] collectors = future.get();
+                for (int f = 0; f < files; f++) {
+                    best[f].addAll(collectors[f]);
+                }
             }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error during parallel execution: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            executor.shutdown();
         }
         
-        // Two character keys - distribute work across threads
-        int twoCharTotal = commonLetters.length() * commonLetters.length();
-        int twoCharBatchSize = Math.max(1, twoCharTotal / numThreads);
+        progressBar.forceUpdate();
+        return bestFirst(best);
+    }
+    
+    /**
+     * Scores one task's range of Vigenère keys on every file through a scoring cascade
+     * The odometer walk yields the letter frequency and dictionary scores of every key at
+     * little cost; only keys that pass both stages are decrypted again for the grapheme stage
+     * @return A collector of the best survivors for each file
+     */
+    private static TopCandidateCollector[] sweepVigenereCascaded(List<String> fileNames, List<EncodedText> encodedFiles,
+                                                                 int length, int[] choices, int startIdx, int endIdx,
+                                                                 long offset, int topCount, ScoringCascade cascade,
+                                                                 ProgressBar progressBar, AtomicInteger testedKeys) {
+        int files = encodedFiles.size();
+        int rangeSize = endIdx - startIdx;
+        VigenereOdometer[] odometers = new VigenereOdometer[files];
+        double[][] letterScores = new double[files][rangeSize];
+        double[][] dictionaryScores = new double[files][rangeSize];
+        for (int f = 0; f < files; f++) {
+            odometers[f] = new VigenereOdometer(encodedFiles.get(f), length, choices);
+            odometers[f].seek(startIdx);
+        }
         
-        for (int threadId = 0; threadId < numThreads; threadId++) {
-            final int startIdx = threadId * twoCharBatchSize;
-            final int endIdx = (threadId == numThreads - 1) ? twoCharTotal : Math.min((threadId + 1) * twoCharBatchSize, twoCharTotal);
+        // Stage 1 and 2 scores of every canonical key in the range, by offset from startIdx
+        int[] canonical = new int[rangeSize];
+        int canonicalCount = 0;
+        for (int idx = startIdx; idx < endIdx; idx++) {
+            if (idx > startIdx) {
+                for (VigenereOdometer odometer : odometers) {
+                    odometer.advance();
+                }
+            }
+            progressBar.updateProgress(testedKeys.incrementAndGet());
+            if (!KeySpace.isCanonicalVigenere(idx, length, choices.length)) {
+                continue;
+            }
+            canonical[canonicalCount++] = idx - startIdx;
+            for (int f = 0; f < files; f++) {
+                letterScores[f][idx - startIdx] = odometers[f].getLetterFrequencyScore();
+                dictionaryScores[f][idx - startIdx] = odometers[f].getDictionaryScore();
+            }
+        }
+        canonical = Arrays.copyOf(canonical, canonicalCount);
+        
+        TopCandidateCollector[] collectors = new TopCandidateCollector[files];
+        GraphemeHeuristic graphemeHeuristic = GraphemeHeuristic.INSTANCE;
+        for (int f = 0; f < files; f++) {
+            collectors[f] = new TopCandidateCollector(topCount);
+            int[] afterLetter = cascade.select(letterScores[f], canonical);
+            double[] stageScores = new double[rangeSize];
+            for (int key : afterLetter) {
+                stageScores[key] = letterScores[f][key] + dictionaryScores[f][key];
+            }
+            int[] afterDictionary = cascade.select(stageScores, afterLetter);
             
-            if (startIdx < endIdx) {
-                futures.add(executor.submit(() -> {
-                    for (int idx = startIdx; idx < endIdx; idx++) {
-                        int c1Idx = idx / commonLetters.length();
-                        int c2Idx = idx % commonLetters.length();
-                        
-                        char c1 = commonLetters.charAt(c1Idx);
-                        char c2 = commonLetters.charAt(c2Idx);
-                        String key = "" + c1 + c2;
-                        
-                        VigenereCipher vigenere = new VigenereCipher(key);
-                        String decrypted = vigenere.decrypt(cipherText);
-                        
-                        DecryptionCandidate candidate = new DecryptionCandidate(
-                            "Vigenère", "key=" + key, fileName, cipherText, decrypted);
-                        candidate.evaluate();
-                        candidates.add(candidate);
-                        
-                        progressBar.updateProgress(testedKeys.incrementAndGet());
-                    }
-                    return null;
-                }));
+            // Only the last stage needs the decrypted text
+            for (int key : afterDictionary) {
+                VigenereOdometer odometer = odometers[f];
+                odometer.seek(startIdx + key);
+                double graphemeScore = graphemeHeuristic.score(AnalyzedText.forThread(odometer.getPlaintext()));
+                double score = DecryptionCandidate.combine(letterScores[f][key], dictionaryScores[f][key], graphemeScore);
+                if (!collectors[f].accepts(score, offset + startIdx + key)) {
+                    continue;
+                }
+                String vigenereKey = odometer.getKey();
+                DecryptionCandidate candidate = new DecryptionCandidate(
+                    "Vigenère", "key=", new VigenereCipher(vigenereKey), fileNames.get(f), encodedFiles.get(f));
+                candidate.setScores(letterScores[f][key], dictionaryScores[f][key], graphemeScore);
+                candidate.setEquivalentKeys(KeySpace.vigenereEquivalents(vigenereKey));
+                collectors[f].offer(candidate, offset + startIdx + key);
             }
+            cascade.record(canonical.length, afterLetter.length, afterDictionary.length);
+        }
+        return collectors;
+    }
+    
+    /**
+     * Scores every canonical Vigenère key of length 2-4 by summing rotated per-column
+     * histograms, then decrypts and fully evaluates only the best-ranked keys of each length
+     */
+    private static List<DecryptionCandidate> searchVigenereByHistogram(String fileName, EncodedText encoded, int numThreads,
+                                                                      int shortlistSize, boolean fullAlphabet) {
+        String commonLetters = "etaoinshrdlcumwfgypbvkjxqz";
+        int[] alphabetChoices = new int[CipherUtils.getAlphabetSize()];
+        for (int i = 0; i < alphabetChoices.length; i++) {
+            alphabetChoices[i] = i;
+        }
+        int[] commonChoices = new int[commonLetters.length()];
+        for (int i = 0; i < commonChoices.length; i++) {
+            commonChoices[i] = CipherUtils.getAlphabetIndex(commonLetters.charAt(i));
+        }
+        
+        // Single character keys are Caesar shifts, so start at two characters
+        int maxKeyLength = KeySpace.MAX_VIGENERE_KEY_LENGTH;
+        int[] choices = fullAlphabet ? alphabetChoices : commonChoices;
+        int totalKeys = 0;
+        for (int keyLength = 2; keyLength <= maxKeyLength; keyLength++) {
+            totalKeys += (int) Math.pow(choices.length, keyLength);
         }
         
-        // Three character keys - distribute work across threads
-        int threeCharTotal = commonLetters.length() * commonLetters.length() * commonLetters.length();
-        int threeCharBatchSize = Math.max(1, threeCharTotal / numThreads);
+        ProgressBar progressBar = new ProgressBar("Vigenère", totalKeys);
+        AtomicInteger testedKeys = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        byte[] buffer = encoded.newBuffer();
         
-        for (int threadId = 0; threadId < numThreads; threadId++) {
-            final int startIdx = threadId * threeCharBatchSize;
-            final int endIdx = (threadId == numThreads - 1) ? threeCharTotal : Math.min((threadId + 1) * threeCharBatchSize, threeCharTotal);
+        try {
+            for (int keyLength = 2; keyLength <= maxKeyLength; keyLength++) {
+                int keysPerTask = (int) Math.pow(choices.length, keyLength - 1);
+                VigenereColumnScorer scorer = new VigenereColumnScorer(encoded, keyLength);
+                
+                // One task per first key character, each with its own bounded collector
+                List<Future<TopKeyCollector>> futures = new ArrayList<>();
+                for (int first = 0; first < choices.length; first++) {
+                    final int firstChoice = first;
+                    futures.add(executor.submit(() -> {
+                        TopKeyCollector collector = new TopKeyCollector(shortlistSize);
+                        scorer.scoreKeys(choices, firstChoice, collector);
+                        progressBar.updateProgress(testedKeys.addAndGet(keysPerTask));
+                        return collector;
+                    }));
+                }
+                
+                TopKeyCollector shortlist = new TopKeyCollector(shortlistSize);
+                for (Future<TopKeyCollector> future : futures) {
+                    shortlist.addAll(future.get());
+                }
+                
+                // Decrypt and fully evaluate only the shortlisted keys of this length
+                for (long keyIndex : shortlist.getKeysBestFirst()) {
+                    String key = vigenereKey(keyIndex, keyLength, choices);
+                    DecryptionCandidate candidate = evaluateKey("Vigenère", "key=", fileName, encoded, new VigenereCipher(key), buffer);
+                    candidate.setEquivalentKeys(KeySpace.vigenereEquivalents(key));
+                    candidates.add(candidate);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error during parallel execution: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            executor.shutdown();
+        }
+        
+        progressBar.forceUpdate();
+        return candidates;
+    }
+    
+    /**
+     * Sweeps every Vigenère key of 2-4 characters over the whole alphabet (about 20 million keys)
+     * Keys are ranked by the incremental letter frequency and dictionary scores on a
+     * work-stealing pool, only the best survivors of each key length are kept, and those
+     * are decrypted and fully evaluated. Reports the sweep throughput in keys per second
+     */
+    public static List<DecryptionCandidate> searchVigenereExhaustive(String fileName, EncodedText encoded,
+                                                                     int numThreads, int survivors) {
+        int maxKeyLength = KeySpace.MAX_VIGENERE_KEY_LENGTH;
+        int[] choices = new int[CipherUtils.getAlphabetSize()];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = i;
+        }
+        
+        // Single character keys are Caesar shifts, so start at two characters
+        long totalKeys = 0;
+        for (int keyLength = 2; keyLength <= maxKeyLength; keyLength++) {
+            totalKeys += (long) Math.pow(choices.length, keyLength);
+        }
+        
+        ProgressBar progressBar = new ProgressBar("Vigenère (exhaustive)", (int) totalKeys);
+        AtomicLong testedKeys = new AtomicLong(0);
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        byte[] buffer = encoded.newBuffer();
+        Timer sweepTimer = new Timer();
+        long sweepMs = 0;
+        
+        try {
+            for (int keyLength = 2; keyLength <= maxKeyLength; keyLength++) {
+                long lengthTotal = (long) Math.pow(choices.length, keyLength);
+                sweepTimer.start();
+                TopKeyCollector best = pool.invoke(new VigenereSweepTask(
+                    encoded, keyLength, choices, 0, lengthTotal, survivors, testedKeys, progressBar));
+                sweepMs += sweepTimer.getElapsedMs();
+                
+                // Decrypt and fully evaluate only the survivors of this length
+                for (long keyIndex : best.getKeysBestFirst()) {
+                    String key = vigenereKey(keyIndex, keyLength, choices);
+                    DecryptionCandidate candidate = evaluateKey("Vigenère", "key=", fileName, encoded, new VigenereCipher(key), buffer);
+                    candidate.setEquivalentKeys(KeySpace.vigenereEquivalents(key));
+                    candidates.add(candidate);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+        progressBar.forceUpdate();
+        System.out.printf("  Exhaustive sweep: %d keys in %d ms (%.0f keys/s)%n",
+                          totalKeys, sweepMs, totalKeys * 1000.0 / Math.max(1, sweepMs));
+        return candidates;
+    }
+    
+    /**
+     * Searches Vigenère keys of 5-30 characters by parallel hill-climbing with trigram fitness
+     * Every key length gets the given number of independent random restarts, spread over the
+     * thread pool; the fittest key of each length is decrypted and fully evaluated
+     */
+    public static List<DecryptionCandidate> searchVigenereLongKeys(String fileName, EncodedText encoded,
+                                                                   int numThreads, int restarts) {
+        // Columns need a few characters each, or any key can be fitted to the text
+        int minKeyLength = 5;
+        int maxKeyLength = Math.min(30, encoded.getAlphabetCount() / 3);
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        if (maxKeyLength < minKeyLength) {
+            return candidates;
+        }
+        
+        int totalRestarts = (maxKeyLength - minKeyLength + 1) * restarts;
+        ProgressBar progressBar = new ProgressBar("Vigenère (long keys)", totalRestarts);
+        AtomicInteger finishedRestarts = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        Set<String> triedKeys = new HashSet<>();
+        byte[] buffer = encoded.newBuffer();
+        Timer climbTimer = new Timer();
+        climbTimer.start();
+        
+        try {
+            // Submit every restart of every length up front so all threads stay busy
+            List<VigenereHillClimber> climbers = new ArrayList<>();
+            List<List<Future<int[]>>> futuresByLength = new ArrayList<>();
+            for (int keyLength = minKeyLength; keyLength <= maxKeyLength; keyLength++) {
+                VigenereHillClimber climber = new VigenereHillClimber(encoded, keyLength);
+                List<Future<int[]>> futures = new ArrayList<>();
+                for (int restart = 0; restart < restarts; restart++) {
+                    final long seed = (long) keyLength * restarts + restart;
+                    futures.add(executor.submit(() -> {
+                        int[] shifts = climber.climb(seed);
+                        progressBar.updateProgress(finishedRestarts.incrementAndGet());
+                        return shifts;
+                    }));
+                }
+                climbers.add(climber);
+                futuresByLength.add(futures);
+            }
             
-            if (startIdx < endIdx) {
-                futures.add(executor.submit(() -> {
-                    for (int idx = startIdx; idx < endIdx; idx++) {
-                        int c1Idx = idx / (commonLetters.length() * commonLetters.length());
-                        int c2Idx = (idx / commonLetters.length()) % commonLetters.length();
-                        int c3Idx = idx % commonLetters.length();
-                        
-                        char c1 = commonLetters.charAt(c1Idx);
-                        char c2 = commonLetters.charAt(c2Idx);
-                        char c3 = commonLetters.charAt(c3Idx);
-                        String key = "" + c1 + c2 + c3;
-                        
-                        VigenereCipher vigenere = new VigenereCipher(key);
-                        String decrypted = vigenere.decrypt(cipherText);
-                        
-                        DecryptionCandidate candidate = new DecryptionCandidate(
-                            "Vigenère", "key=" + key, fileName, cipherText, decrypted);
-                        candidate.evaluate();
-                        candidates.add(candidate);
-                        
-                        progressBar.updateProgress(testedKeys.incrementAndGet());
+            for (int i = 0; i < climbers.size(); i++) {
+                // Keep the fittest restart of this length
+                int[] bestShifts = null;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (Future<int[]> future : futuresByLength.get(i)) {
+                    int[] shifts = future.get();
+                    double score = climbers.get(i).score(shifts);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestShifts = shifts;
                     }
-                    return null;
-                }));
+                }
+                
+                char[] keyChars = new char[bestShifts.length];
+                for (int c = 0; c < bestShifts.length; c++) {
+                    keyChars[c] = CipherUtils.getAlphabetChar(bestShifts[c]);
+                }
+                // A winner that repeats a shorter key belongs to a length searched on its own
+                String key = new String(keyChars);
+                if (KeySpace.isCanonicalVigenere(key) && triedKeys.add(key)) {
+                    DecryptionCandidate candidate = evaluateKey("Vigenère", "key=", fileName, encoded, new VigenereCipher(key), buffer);
+                    candidate.setEquivalentKeys(KeySpace.vigenereEquivalents(key));
+                    candidates.add(candidate);
+                }
             }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error during parallel execution: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            executor.shutdown();
         }
         
-        // Four character keys - distribute work across threads
-        int fourCharTotal = commonLetters.length() * commonLetters.length() * commonLetters.length() * commonLetters.length();
-        int fourCharBatchSize = Math.max(1, fourCharTotal / numThreads);
+        progressBar.forceUpdate();
+        System.out.printf("  Hill climbing: %d restarts over key lengths %d-%d in %d ms%n",
+                          totalRestarts, minKeyLength, maxKeyLength, climbTimer.getElapsedMs());
+        return candidates;
+    }
+    
+    /**
+     * Breaks the general substitution cipher by hill-climbing with swap moves
+     * Every thread runs independent restarts until the time budget runs out and keeps its
+     * fittest distinct mappings; the fittest overall are decrypted and fully evaluated.
+     * Reports the restart throughput in restarts per second
+     * @param keysToVerify The number of fittest mappings to fully evaluate
+     */
+    public static List<DecryptionCandidate> searchSubstitution(String fileName, EncodedText encoded,
+                                                               int numThreads, long timeBudgetMs, int keysToVerify) {
+        SubstitutionHillClimber climber = new SubstitutionHillClimber(encoded);
+        ProgressBar progressBar = new ProgressBar("Substitution", (int) timeBudgetMs);
+        AtomicInteger nextRestart = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        Timer climbTimer = new Timer();
+        climbTimer.start();
         
-        for (int threadId = 0; threadId < numThreads; threadId++) {
-            final int startIdx = threadId * fourCharBatchSize;
-            final int endIdx = (threadId == numThreads - 1) ? fourCharTotal : Math.min((threadId + 1) * fourCharBatchSize, fourCharTotal);
-            
-            if (startIdx < endIdx) {
+        try {
+            List<Future<List<int[]>>> futures = new ArrayList<>();
+            for (int threadId = 0; threadId < numThreads; threadId++) {
                 futures.add(executor.submit(() -> {
-                    for (int idx = startIdx; idx < endIdx; idx++) {
-                        int c1Idx = idx / (commonLetters.length() * commonLetters.length() * commonLetters.length());
-                        int c2Idx = (idx / (commonLetters.length() * commonLetters.length())) % commonLetters.length();
-                        int c3Idx = (idx / commonLetters.length()) % commonLetters.length();
-                        int c4Idx = idx % commonLetters.length();
-                        
-                        char c1 = commonLetters.charAt(c1Idx);
-                        char c2 = commonLetters.charAt(c2Idx);
-                        char c3 = commonLetters.charAt(c3Idx);
-                        char c4 = commonLetters.charAt(c4Idx);
-                        String key = "" + c1 + c2 + c3 + c4;
-                        
-                        VigenereCipher vigenere = new VigenereCipher(key);
-                        String decrypted = vigenere.decrypt(cipherText);
-                        
-                        DecryptionCandidate candidate = new DecryptionCandidate(
-                            "Vigenère", "key=" + key, fileName, cipherText, decrypted);
-                        candidate.evaluate();
-                        candidates.add(candidate);
-                        
-                        progressBar.updateProgress(testedKeys.incrementAndGet());
-                    }
-                    return null;
+                    List<int[]> best = new ArrayList<>();
+                    List<Double> bestScores = new ArrayList<>();
+                    do {
+                        int[] mapping = climber.climb(nextRestart.getAndIncrement());
+                        keepFittest(best, bestScores, mapping, climber, keysToVerify);
+                        progressBar.updateProgress((int) Math.min(climbTimer.getElapsedMs(), timeBudgetMs));
+                    } while (climbTimer.getElapsedMs() < timeBudgetMs);
+                    return best;
                 }));
             }
+            
+            List<int[]> best = new ArrayList<>();
+            List<Double> bestScores = new ArrayList<>();
+            for (Future<List<int[]>> future : futures) {
+                for (int[] mapping : future.get()) {
+                    keepFittest(best, bestScores, mapping, climber, keysToVerify);
+                }
+            }
+            
+            byte[] buffer = encoded.newBuffer();
+            for (int[] mapping : best) {
+                SubstitutionCipher cipher = SubstitutionCipher.fromDecryptMap(mapping);
+                candidates.add(evaluateKey("Substitution", "key=", fileName, encoded, cipher, buffer));
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error during parallel execution: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            executor.shutdown();
+        }
+        
+        progressBar.forceUpdate();
+        long elapsedMs = climbTimer.getElapsedMs();
+        System.out.printf("  Substitution: %d restarts in %d ms (%.1f restarts/s)%n",
+                          nextRestart.get(), elapsedMs, nextRestart.get() * 1000.0 / Math.max(1, elapsedMs));
+        return candidates;
+    }
+    
+    /**
+     * Breaks the general substitution cipher from the word patterns of the ciphertext
+     * Words are matched to dictionary words with the same letter-repetition pattern under
+     * one consistent mapping; the best mappings are decrypted and fully evaluated
+     * @param keysToVerify The number of best mappings to fully evaluate
+     */
+    public static List<DecryptionCandidate> searchSubstitutionByPatterns(String fileName, EncodedText encoded,
+                                                                         int keysToVerify) {
+        Timer solveTimer = new Timer();
+        solveTimer.start();
+        WordPatternSolver solver = new WordPatternSolver(encoded);
+        List<int[]> mappings = solver.solve(keysToVerify);
+        
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        byte[] buffer = encoded.newBuffer();
+        for (int[] mapping : mappings) {
+            SubstitutionCipher cipher = SubstitutionCipher.fromDecryptMap(mapping);
+            candidates.add(evaluateKey("Substitution", "key=", fileName, encoded, cipher, buffer));
+        }
+        
+        System.out.printf("  Word patterns: %d candidate words, %d letters covered, %d nodes in %d ms%n",
+                          solver.getWordCount(), solver.getCoveredLetters(), solver.getVisitedNodes(),
+                          solveTimer.getElapsedMs());
+        return candidates;
+    }
+    
+    /**
+     * Adds a mapping to a list of the fittest distinct mappings, best first
+     * The kept mappings' scores are stored alongside them, so only the new mapping is scored
+     */
+    private static void keepFittest(List<int[]> best, List<Double> bestScores, int[] mapping,
+                                    SubstitutionHillClimber climber, int capacity) {
+        for (int[] kept : best) {
+            if (climber.sameDecryption(kept, mapping)) {
+                return;
+            }
+        }
+        
+        double score = climber.score(mapping);
+        int position = 0;
+        while (position < best.size() && bestScores.get(position) >= score) {
+            position++;
+        }
+        if (position < capacity) {
+            best.add(position, mapping);
+            bestScores.add(position, score);
+            if (best.size() > capacity) {
+                best.remove(capacity);
+                bestScores.remove(capacity);
+            }
+        }
+    }
+    
+    /**
+     * Solves the Vigenère cipher without enumerating keys: estimates the likely key lengths
+     * from index of coincidence and Kasiski spacing, solves each key column as a Caesar
+     * problem, and fully evaluates only the proposed keys
+     */
+    public static List<DecryptionCandidate> searchVigenereSolver(String fileName, EncodedText encoded, int maxKeyLength) {
+        int lengthsToTry = 4;
+        VigenereSolver solver = new VigenereSolver(encoded);
+        int[] keyLengths = solver.likelyKeyLengths(maxKeyLength, lengthsToTry);
+        
+        ProgressBar progressBar = new ProgressBar("Vigenère (solver)", keyLengths.length);
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        Set<String> triedKeys = new HashSet<>();
+        byte[] buffer = encoded.newBuffer();
+        
+        for (int i = 0; i < keyLengths.length; i++) {
+            for (String key : solver.candidateKeys(keyLengths[i])) {
+                // Single character keys are already covered by the Caesar search
+                if (KeySpace.isCanonicalVigenere(key) && triedKeys.add(key)) {
+                    DecryptionCandidate candidate = evaluateKey("Vigenère", "key=", fileName, encoded, new VigenereCipher(key), buffer);
+                    candidate.setEquivalentKeys(KeySpace.vigenereEquivalents(key));
+                    candidates.add(candidate);
+                }
+            }
+            progressBar.updateProgress(i + 1);
+        }
+        
+        progressBar.forceUpdate();
+        return candidates;
+    }
+    
+    /**
+     * Recovers keys from a known plaintext crib instead of sweeping the key space
+     * The crib is aligned at every word start where it fits the ciphertext's layout, the
+     * Caesar, Affine and Vigenère keys are solved from it, and only those keys are
+     * decrypted and fully evaluated
+     */
+    public static List<DecryptionCandidate> searchCrib(String fileName, EncodedText encoded, String crib, int maxKeyLength) {
+        CribSolver solver = new CribSolver(encoded, crib);
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        byte[] buffer = encoded.newBuffer();
+        
+        for (int shift : solver.caesarShifts()) {
+            DecryptionCandidate candidate = evaluateKey("Caesar", "shift=", fileName, encoded, new CaesarCipher(shift), buffer);
+            candidate.setEquivalentKeys(KeySpace.caesarEquivalents(shift));
+            candidates.add(candidate);
+        }
+        for (String key : solver.vigenereKeys(maxKeyLength)) {
+            DecryptionCandidate candidate = evaluateKey("Vigenère", "key=", fileName, encoded, new VigenereCipher(key), buffer);
+            candidate.setEquivalentKeys(KeySpace.vigenereEquivalents(key));
+            candidates.add(candidate);
+        }
+        for (int[] pair : solver.affineKeys()) {
+            AffineCipher affine = new AffineCipher(pair[0], pair[1]);
+            DecryptionCandidate candidate = evaluateKey("Affine", "", fileName, encoded, affine, buffer);
+            candidate.setEquivalentKeys(KeySpace.affineEquivalents(pair[0], pair[1]));
+            candidates.add(candidate);
         }
         
-        // Wait for all tasks to complete
+        System.out.println("  Crib: " + solver.getAlignments().size() + " alignments, "
+                           + candidates.size() + " consistent keys");
+        return candidates;
+    }
+    
+    /**
+     * Converts a mixed-radix key index back into a Vigenère key string
+     */
+    private static String vigenereKey(long keyIndex, int keyLength, int[] choices) {
+        char[] key = new char[keyLength];
+        for (int position = keyLength - 1; position >= 0; position--) {
+            key[position] = CipherUtils.getAlphabetChar(choices[(int) (keyIndex % choices.length)]);
+            keyIndex /= choices.length;
+        }
+        return new String(key);
+    }
+    
+    /**
+     * Searches Autokey primers of 1-4 characters over the whole alphabet
+     * Each primer length is ranked on its own thread by summed chain log-likelihood with
+     * branch-and-bound pruning, and only the best survivors are decrypted and fully evaluated
+     */
+    public static List<DecryptionCandidate> searchAutokey(String fileName, EncodedText encoded,
+                                                          int numThreads, int survivors) {
+        int maxPrimerLength = 4;
+        int[] choices = new int[CipherUtils.getAlphabetSize()];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = i;
+        }
+        
+        ProgressBar progressBar = new ProgressBar("Autokey", maxPrimerLength);
+        AtomicInteger finishedLengths = new AtomicInteger(0);
+        AtomicLong visitedPrefixes = new AtomicLong(0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        byte[] buffer = encoded.newBuffer();
+        Timer searchTimer = new Timer();
+        searchTimer.start();
+        
         try {
-            for (Future<Void> future : futures) {
-                future.get();
+            List<Future<TopKeyCollector>> futures = new ArrayList<>();
+            for (int primerLength = 1; primerLength <= maxPrimerLength; primerLength++) {
+                final int length = primerLength;
+                futures.add(executor.submit(() -> {
+                    AutokeyPrimerSearch search = new AutokeyPrimerSearch(encoded, length);
+                    TopKeyCollector collector = new TopKeyCollector(survivors);
+                    search.search(collector);
+                    visitedPrefixes.addAndGet(search.getVisitedPrefixes());
+                    progressBar.updateProgress(finishedLengths.incrementAndGet());
+                    return collector;
+                }));
+            }
+            
+            // Decrypt and fully evaluate only the survivors of each primer length
+            for (int primerLength = 1; primerLength <= maxPrimerLength; primerLength++) {
+                for (long primerIndex : futures.get(primerLength - 1).get().getKeysBestFirst()) {
+                    String primer = vigenereKey(primerIndex, primerLength, choices);
+                    candidates.add(evaluateKey("Autokey", "primer=", fileName, encoded, new AutokeyCipher(primer), buffer));
+                }
             }
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error during parallel execution: " + e.getMessage());
@@ -236,31 +855,101 @@ public class BruteForceSearch {
         }
         
         progressBar.forceUpdate();
-        return new ArrayList<>(candidates);
+        System.out.printf("  Autokey: %d primer prefixes visited in %d ms%n", visitedPrefixes.get(), searchTimer.getElapsedMs());
+        return candidates;
     }
     
     /**
      * Generates all possible Affine cipher keys
      */
     public static List<DecryptionCandidate> searchAffine(String fileName, String cipherText) {
-        List<DecryptionCandidate> candidates = new ArrayList<>();
+        return searchAffine(fileName, new EncodedText(cipherText));
+    }
+    
+    /**
+     * Generates all possible Affine cipher keys against a pre-encoded ciphertext
+     */
+    public static List<DecryptionCandidate> searchAffine(String fileName, EncodedText encoded) {
+        return searchAffine(fileName, encoded, 0);
+    }
+    
+    /**
+     * Generates all possible Affine cipher keys against a pre-encoded ciphertext
+     * With a positive shortlist size, every (a, b) pair is scored from the ciphertext
+     * histogram and only the best shortlistSize pairs are decrypted and fully evaluated
+     */
+    public static List<DecryptionCandidate> searchAffine(String fileName, EncodedText encoded, int shortlistSize) {
+        if (shortlistSize > 0) {
+            return searchAffineByHistogram(fileName, encoded, shortlistSize);
+        }
+        return searchAffine(Collections.singletonList(fileName), Collections.singletonList(encoded)).get(0);
+    }
+    
+    /**
+     * Generates all canonical Affine cipher keys once and applies each to every file
+     * @return The candidates of each file, in the order of the files
+     */
+    public static List<List<DecryptionCandidate>> searchAffine(List<String> fileNames, List<EncodedText> encodedFiles) {
+        return searchAffine(fileNames, encodedFiles, Integer.MAX_VALUE, null);
+    }
+    
+    /**
+     * Generates all canonical Affine cipher keys once and applies each to every file
+     * Without a cascade, each file keeps its best topCount candidates, and keys that cannot
+     * reach the current worst of them stop scoring early
+     * @param topCount The number of best candidates to keep per file
+     * @param cascade The scoring cascade to run the keys through, or null to score every key
+     * @return The candidates of each file, in the order of the files
+     */
+    public static List<List<DecryptionCandidate>> searchAffine(List<String> fileNames, List<EncodedText> encodedFiles,
+                                                               int topCount, ScoringCascade cascade) {
+        if (cascade != null) {
+            List<Cipher> ciphers = new ArrayList<>();
+            List<SubstitutionTable> tables = new ArrayList<>();
+            List<List<String>> equivalentKeys = new ArrayList<>();
+            for (int a : AffineCipher.getValidMultiplicativeKeys()) {
+                for (int b = 0; b < CipherUtils.getAlphabetSize(); b++) {
+                    if (KeySpace.isCanonicalAffine(a, b)) {
+                        AffineCipher affine = new AffineCipher(a, b);
+                        ciphers.add(affine);
+                        tables.add(affine.getTable());
+                        equivalentKeys.add(KeySpace.affineEquivalents(a, b));
+                    }
+                }
+            }
+            return searchCascaded("Affine", "", ciphers, tables, equivalentKeys, fileNames, encodedFiles, cascade);
+        }
+        
+        TopCandidateCollector[] collectors = newCollectors(fileNames.size(), topCount);
+        byte[][] buffers = newBuffers(encodedFiles);
         int[] validAKeys = AffineCipher.getValidMultiplicativeKeys();
         int alphabetSize = CipherUtils.getAlphabetSize();
         
-        int totalKeys = validAKeys.length * alphabetSize;
+        // a=1 with a non-zero b is a Caesar shift, so only the identity (1, 0) is kept
+        int totalKeys = validAKeys.length * alphabetSize - (alphabetSize - 1);
         ProgressBar progressBar = new ProgressBar("Affine", totalKeys);
         int testedKeys = 0;
         
         for (int a : validAKeys) {
             for (int b = 0; b < alphabetSize; b++) {
+                if (!KeySpace.isCanonicalAffine(a, b)) {
+                    continue;
+                }
                 try {
                     AffineCipher affine = new AffineCipher(a, b);
-                    String decrypted = affine.decrypt(cipherText);
+                    List<String> equivalentKeys = KeySpace.affineEquivalents(a, b);
                     
-                    DecryptionCandidate candidate = new DecryptionCandidate(
-                        "Affine", affine.getKey(), fileName, cipherText, decrypted);
-                    candidate.evaluate();
-                    candidates.add(candidate);
+                    for (int f = 0; f < encodedFiles.size(); f++) {
+                        EncodedText encoded = encodedFiles.get(f);
+                        affine.decryptInto(encoded, buffers[f]);
+                        
+                        DecryptionCandidate candidate = new DecryptionCandidate(
+                            "Affine", "", affine, fileNames.get(f), encoded);
+                        if (candidate.evaluate(encoded.decode(buffers[f]), collectors[f].getThreshold())) {
+                            candidate.setEquivalentKeys(equivalentKeys);
+                            collectors[f].offer(candidate, testedKeys);
+                        }
+                    }
                     
                     progressBar.updateProgress(++testedKeys);
                 } catch (IllegalArgumentException e) {
@@ -272,31 +961,230 @@ public class BruteForceSearch {
         }
         
         progressBar.forceUpdate();
+        return bestFirst(collectors);
+    }
+    
+    /**
+     * Solves the Affine cipher by frequency alignment and fully evaluates only the most
+     * likely keys; falls back to the full sweep when the alignment is not trusted
+     * @param keysToVerify The number of most likely keys to fully evaluate
+     */
+    public static List<DecryptionCandidate> searchAffineSolver(String fileName, EncodedText encoded, int shortlistSize,
+                                                               int keysToVerify) {
+        AffineSolver solver = new AffineSolver(encoded);
+        List<int[]> keys = solver.candidateKeys();
+        
+        if (!solver.isConfident(keys)) {
+            System.out.printf("  Affine solver: low confidence (%.3f), sweeping all keys%n", solver.confidence(keys));
+            return searchAffine(fileName, encoded, shortlistSize);
+        }
+        
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        byte[] buffer = encoded.newBuffer();
+        for (int[] key : keys.subList(0, Math.min(keysToVerify, keys.size()))) {
+            AffineCipher affine = new AffineCipher(key[0], key[1]);
+            DecryptionCandidate candidate = evaluateKey("Affine", "", fileName, encoded, affine, buffer);
+            candidate.setEquivalentKeys(KeySpace.affineEquivalents(key[0], key[1]));
+            candidates.add(candidate);
+        }
+        
+        System.out.printf("  Affine solver: %d candidate keys, verified %d (confidence %.3f)%n",
+                          keys.size(), candidates.size(), solver.confidence(keys));
         return candidates;
     }
     
+    /**
+     * Scores every Affine (a, b) pair by permuting the ciphertext histogram, then decrypts
+     * and fully evaluates only the best-ranked pairs
+     */
+    private static List<DecryptionCandidate> searchAffineByHistogram(String fileName, EncodedText encoded, int shortlistSize) {
+        int[] validAKeys = AffineCipher.getValidMultiplicativeKeys();
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        int totalKeys = validAKeys.length * alphabetSize;
+        
+        LetterHistogram histogram = new LetterHistogram(encoded);
+        int[] letterCounts = new int[26];
+        double[] scores = new double[totalKeys];
+        
+        ProgressBar progressBar = new ProgressBar("Affine", totalKeys);
+        
+        // Key index is aIndex * alphabetSize + b; Caesar-equivalent keys rank below every other key
+        for (int aIndex = 0; aIndex < validAKeys.length; aIndex++) {
+            for (int b = 0; b < alphabetSize; b++) {
+                int keyIndex = aIndex * alphabetSize + b;
+                if (!KeySpace.isCanonicalAffine(validAKeys[aIndex], b)) {
+                    scores[keyIndex] = Double.NEGATIVE_INFINITY;
+                    progressBar.updateProgress(keyIndex + 1);
+                    continue;
+                }
+                SubstitutionTable table = KeyCompiler.affine(validAKeys[aIndex], b);
+                scores[keyIndex] = histogram.score(table.getIndexMap(), letterCounts);
+                progressBar.updateProgress(keyIndex + 1);
+            }
+        }
+        
+        progressBar.forceUpdate();
+        
+        // Decrypt and fully evaluate only the shortlisted pairs
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        byte[] buffer = encoded.newBuffer();
+        for (int keyIndex : TopKeyCollector.topIndices(scores, shortlistSize)) {
+            int a = validAKeys[keyIndex / alphabetSize];
+            int b = keyIndex % alphabetSize;
+            if (!KeySpace.isCanonicalAffine(a, b)) {
+                continue;
+            }
+            AffineCipher affine = new AffineCipher(a, b);
+            DecryptionCandidate candidate = evaluateKey("Affine", "", fileName, encoded, affine, buffer);
+            candidate.setEquivalentKeys(KeySpace.affineEquivalents(a, b));
+            candidates.add(candidate);
+        }
+        return candidates;
+    }
+    
+    /**
+     * Creates an empty candidate list for each file
+     */
+    private static List<List<DecryptionCandidate>> newResultLists(int files) {
+        List<List<DecryptionCandidate>> results = new ArrayList<>();
+        for (int f = 0; f < files; f++) {
+            results.add(new ArrayList<>());
+        }
+        return results;
+    }
+    
+    /**
+     * Creates a bounded candidate collector for each file
+     */
+    private static TopCandidateCollector[] newCollectors(int files, int topCount) {
+        TopCandidateCollector[] collectors = new TopCandidateCollector[files];
+        for (int f = 0; f < files; f++) {
+            collectors[f] = new TopCandidateCollector(topCount);
+        }
+        return collectors;
+    }
+    
+    /**
+     * Gets the candidates kept for each file, best first
+     */
+    private static List<List<DecryptionCandidate>> bestFirst(TopCandidateCollector[] collectors) {
+        List<List<DecryptionCandidate>> results = new ArrayList<>();
+        for (TopCandidateCollector collector : collectors) {
+            results.add(collector.getCandidatesBestFirst());
+        }
+        return results;
+    }
+    
+    /**
+     * Creates a decryption buffer for each file
+     */
+    private static byte[][] newBuffers(List<EncodedText> encodedFiles) {
+        byte[][] buffers = new byte[encodedFiles.size()][];
+        for (int f = 0; f < buffers.length; f++) {
+            buffers[f] = encodedFiles.get(f).newBuffer();
+        }
+        return buffers;
+    }
+    
+    /**
+     * Scores a list of monoalphabetic keys on every file through a scoring cascade
+     * The letter frequency stage permutes each file's histogram through the key's table,
+     * so only keys that pass it are decrypted
+     * @param keyPrefix The label put before each cipher's key
+     * @param ciphers The ciphers of the keys to score
+     * @param tables The decryption table of each cipher
+     * @param equivalentKeys The equivalent keys of each cipher
+     * @return The survivors of each file in key order, in the order of the files
+     */
+    private static List<List<DecryptionCandidate>> searchCascaded(String cipherName, String keyPrefix, List<Cipher> ciphers,
+                                                                  List<SubstitutionTable> tables,
+                                                                  List<List<String>> equivalentKeys, List<String> fileNames,
+                                                                  List<EncodedText> encodedFiles, ScoringCascade cascade) {
+        List<List<DecryptionCandidate>> results = newResultLists(fileNames.size());
+        int keys = ciphers.size();
+        int[] letterCounts = new int[26];
+        DictionaryHeuristic dictHeuristic = DictionaryHeuristic.INSTANCE;
+        GraphemeHeuristic graphemeHeuristic = GraphemeHeuristic.INSTANCE;
+        
+        ProgressBar progressBar = new ProgressBar(cipherName, keys * fileNames.size());
+        int testedKeys = 0;
+        
+        for (int f = 0; f < fileNames.size(); f++) {
+            EncodedText encoded = encodedFiles.get(f);
+            WordLayout layout = encoded.getWordLayout();
+            byte[] buffer = encoded.newBuffer();
+            
+            // Stage 1: letter frequency of every key, exact from the ciphertext histogram
+            LetterHistogram histogram = new LetterHistogram(encoded);
+            double[] letterScores = new double[keys];
+            int[] allKeys = new int[keys];
+            for (int k = 0; k < keys; k++) {
+                letterScores[k] = histogram.score(tables.get(k).getIndexMap(), letterCounts);
+                allKeys[k] = k;
+                progressBar.updateProgress(++testedKeys);
+            }
+            int[] afterLetter = cascade.select(letterScores, allKeys);
+            
+            // Stage 2: dictionary score of the survivors, ranked together with letter frequency
+            double[] dictionaryScores = new double[keys];
+            double[] stageScores = new double[keys];
+            for (int k : afterLetter) {
+                ciphers.get(k).decryptInto(encoded, buffer);
+                dictionaryScores[k] = dictHeuristic.score(AnalyzedText.forThread(encoded.decode(buffer), layout));
+                stageScores[k] = letterScores[k] + dictionaryScores[k];
+            }
+            int[] afterDictionary = cascade.select(stageScores, afterLetter);
+            
+            // Stage 3: grapheme score, which completes the same scores evaluate() gives
+            for (int k : afterDictionary) {
+                ciphers.get(k).decryptInto(encoded, buffer);
+                DecryptionCandidate candidate = new DecryptionCandidate(
+                    cipherName, keyPrefix, ciphers.get(k), fileNames.get(f), encoded);
+                candidate.setScores(letterScores[k], dictionaryScores[k],
+                                    graphemeHeuristic.score(AnalyzedText.forThread(encoded.decode(buffer))));
+                candidate.setEquivalentKeys(equivalentKeys.get(k));
+                results.get(f).add(candidate);
+            }
+            cascade.record(keys, afterLetter.length, afterDictionary.length);
+        }
+        
+        progressBar.forceUpdate();
+        return results;
+    }
+    
+    /**
+     * Decrypts the encoded text with one key and evaluates it with all heuristics
+     */
+    private static DecryptionCandidate evaluateKey(String cipherName, String keyPrefix, String fileName,
+                                                   EncodedText encoded, Cipher cipher, byte[] buffer) {
+        cipher.decryptInto(encoded, buffer);
+        DecryptionCandidate candidate = new DecryptionCandidate(cipherName, keyPrefix, cipher, fileName, encoded);
+        candidate.evaluate(encoded.decode(buffer));
+        return candidate;
+    }
+    
     /**
      * Process a single file with all cipher types
      */
     public static List<DecryptionCandidate> processFile(String fileName, String content, Map<String, Long> fileTimings, int numThreads) {
+        SearchOptions options = new SearchOptions();
+        options.setNumThreads(numThreads);
+        return processFile(fileName, content, fileTimings, options);
+    }
+    
+    /**
+     * Process a single file with all cipher types using the given search options
+     */
+    public static List<DecryptionCandidate> processFile(String fileName, String content, Map<String, Long> fileTimings, SearchOptions options) {
         System.out.println("Processing file: " + fileName + " (length: " + content.length() + ")");
         
         Timer fileTimer = new Timer();
         fileTimer.start();
         
-        List<DecryptionCandidate> allCandidates = new ArrayList<>();
-        
-        // Search with Caesar cipher
-        List<DecryptionCandidate> caesarResults = searchCaesar(fileName, content);
-        allCandidates.addAll(caesarResults);
-        
-        // Search with Vigenère cipher (parallelized)
-        List<DecryptionCandidate> vigenereResults = searchVigenere(fileName, content, numThreads);
-        allCandidates.addAll(vigenereResults);
-        
-        // Search with Affine cipher
-        List<DecryptionCandidate> affineResults = searchAffine(fileName, content);
-        allCandidates.addAll(affineResults);
+        // Encode the ciphertext once and share it with every search
+        EncodedText encoded = new EncodedText(content);
+        List<DecryptionCandidate> allCandidates = searchAll(
+            Collections.singletonList(fileName), Collections.singletonList(encoded), options).get(0);
         
         long elapsedMs = fileTimer.getElapsedMs();
         fileTimings.put(fileName, elapsedMs);
@@ -306,6 +1194,163 @@ public class BruteForceSearch {
         return allCandidates;
     }
     
+    /**
+     * Process many files in one batch with all cipher types using the given search options
+     * The full Caesar, Vigenère and Affine sweeps enumerate each key once and apply it to
+     * every file; the other searches still run file by file. Each file is timed with an
+     * equal share of the batch time
+     * @return The candidates of each file, keyed by file name in the order given
+     */
+    public static Map<String, List<DecryptionCandidate>> processFiles(List<String> fileNames, List<String> contents,
+                                                                       Map<String, Long> fileTimings, SearchOptions options) {
+        System.out.println("Processing " + fileNames.size() + " files in one batch");
+        
+        Timer batchTimer = new Timer();
+        batchTimer.start();
+        
+        List<EncodedText> encodedFiles = new ArrayList<>();
+        for (String content : contents) {
+            encodedFiles.add(new EncodedText(content));
+        }
+        List<List<DecryptionCandidate>> results = searchAll(fileNames, encodedFiles, options);
+        
+        long elapsedMs = batchTimer.getElapsedMs();
+        Map<String, List<DecryptionCandidate>> candidatesByFile = new LinkedHashMap<>();
+        int totalCandidates = 0;
+        for (int f = 0; f < fileNames.size(); f++) {
+            candidatesByFile.put(fileNames.get(f), results.get(f));
+            fileTimings.put(fileNames.get(f), elapsedMs / fileNames.size());
+            totalCandidates += results.get(f).size();
+        }
+        
+        System.out.println("  Completed in " + elapsedMs + "ms. Total candidates: " + totalCandidates);
+        
+        return candidatesByFile;
+    }
+    
+    /**
+     * Runs every search the options select on a list of files
+     * The full Caesar, Vigenère and Affine sweeps are batched across the files
+     */
+    private static List<List<DecryptionCandidate>> searchAll(List<String> fileNames, List<EncodedText> encodedFiles,
+                                                             SearchOptions options) {
+        List<List<DecryptionCandidate>> results = newResultLists(fileNames.size());
+        int shortlistSize = options.getShortlistSize();
+        int numThreads = options.getNumThreads();
+        
+        // A known crib replaces the brute-force searches
+        if (options.getCrib() != null) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchCrib(fileName, encoded, options.getCrib(), options.getMaxKeyLength()));
+            return results;
+        }
+        
+        // Search with Caesar cipher
+        if (shortlistSize > 0) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchCaesar(fileName, encoded, shortlistSize));
+        } else {
+            ScoringCascade cascade = newCascade(options);
+            addAll(results, searchCaesar(fileNames, encodedFiles, options.getTopCount(), cascade));
+            reportCascade("Caesar", cascade);
+        }
+        
+        // Search with Vigenère cipher (parallelized), or solve it column by column
+        if (options.isVigenereSolver()) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchVigenereSolver(fileName, encoded, options.getMaxKeyLength()));
+        } else if (options.isExhaustive()) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchVigenereExhaustive(fileName, encoded, numThreads,
+                                                                        options.getSurvivorCount()));
+        } else if (shortlistSize > 0) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchVigenere(fileName, encoded, numThreads,
+                                                              shortlistSize, options.isFullAlphabet()));
+        } else {
+            ScoringCascade cascade = newCascade(options);
+            addAll(results, searchVigenere(fileNames, encodedFiles, numThreads, options.getTopCount(), cascade));
+            reportCascade("Vigenère", cascade);
+        }
+        
+        // Attack longer Vigenère keys by hill-climbing
+        if (options.isLongKeys()) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchVigenereLongKeys(fileName, encoded, numThreads, options.getRestarts()));
+        }
+        
+        // Break the general substitution cipher from word patterns and by hill-climbing
+        if (options.isSubstitution()) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchSubstitutionByPatterns(fileName, encoded, options.getTopCount()));
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchSubstitution(fileName, encoded, numThreads, options.getTimeBudgetMs(),
+                                                                  options.getTopCount()));
+        }
+        
+        // Search Autokey primers
+        if (options.isAutokey()) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchAutokey(fileName, encoded, numThreads, options.getSurvivorCount()));
+        }
+        
+        // Search with Affine cipher
+        if (options.isAffineSolver()) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchAffineSolver(fileName, encoded, shortlistSize,
+                                                                  options.getTopCount()));
+        } else if (shortlistSize > 0) {
+            forEachFile(results, fileNames, encodedFiles,
+                        (fileName, encoded) -> searchAffine(fileName, encoded, shortlistSize));
+        } else {
+            ScoringCascade cascade = newCascade(options);
+            addAll(results, searchAffine(fileNames, encodedFiles, options.getTopCount(), cascade));
+            reportCascade("Affine", cascade);
+        }
+        
+        return results;
+    }
+    
+    /**
+     * Creates the scoring cascade for one full sweep
+     * @return The cascade, or null if the options fully score every key
+     */
+    private static ScoringCascade newCascade(SearchOptions options) {
+        if (options.getCascadeFraction() <= 0) {
+            return null;
+        }
+        return new ScoringCascade(options.getCascadeFraction(), options.getTopCount());
+    }
+    
+    /**
+     * Prints how many keys each stage of a sweep's scoring cascade discarded
+     */
+    private static void reportCascade(String cipherName, ScoringCascade cascade) {
+        if (cascade != null) {
+            System.out.println("  " + cipherName + " cascade: " + cascade.getReport());
+        }
+    }
+    
+    /**
+     * Runs a single-file search on every file and adds its candidates to that file's results
+     */
+    private static void forEachFile(List<List<DecryptionCandidate>> results, List<String> fileNames,
+                                    List<EncodedText> encodedFiles,
+                                    BiFunction<String, EncodedText, List<DecryptionCandidate>> search) {
+        for (int f = 0; f < fileNames.size(); f++) {
+            results.get(f).addAll(search.apply(fileNames.get(f), encodedFiles.get(f)));
+        }
+    }
+    
+    /**
+     * Adds the candidates of a batched search to each file's results
+     */
+    private static void addAll(List<List<DecryptionCandidate>> results, List<List<DecryptionCandidate>> batch) {
+        for (int f = 0; f < results.size(); f++) {
+            results.get(f).addAll(batch.get(f));
+        }
+    }
+    
     /**
      * Export the results for each file to output.md in the specified format
      */
@@ -327,6 +1372,9 @@ public class BruteForceSearch {
                     writer.println("## Decryption " + decryptionNum + ": " + candidate.getCipherName() + " Cipher");
                     writer.println("- Cipher: " + candidate.getCipherName());
                     writer.println("- Key: " + candidate.getKey());
+                    if (!candidate.getEquivalentKeys().isEmpty()) {
+                        writer.println("- Equivalent Keys: " + String.join(", ", candidate.getEquivalentKeys()));
+                    }
                     writer.println("- Combined Score: " + String.format("%.3f", candidate.getCombinedScore()));
                     writer.println("- Letter Frequency Score: " + String.format("%.3f", candidate.getLetterFrequencyScore()));
                     writer.println("- Dictionary Score: " + String.format("%.3f", candidate.getDictionaryScore()));
@@ -366,25 +1414,58 @@ public class BruteForceSearch {
     
     public static void main(String[] args) {
         // Parse command line arguments
-        int numThreads = 4; // default value
-        for (int i = 0; i < args.length; i++) {
-            if (args[i].equals("--threads") && i + 1 < args.length) {
-                try {
-                    numThreads = Integer.parseInt(args[i + 1]);
-                    if (numThreads < 1) {
-                        System.err.println("Number of threads must be at least 1");
-                        return;
-                    }
-                } catch (NumberFormatException e) {
-                    System.err.println("Invalid number of threads: " + args[i + 1]);
-                    return;
-                }
-            }
+        SearchOptions options;
+        try {
+            options = SearchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
         }
+        int numThreads = options.getNumThreads();
         
         System.out.println("Brute Force Cipher Search");
         System.out.println("=========================");
         System.out.println("Using " + numThreads + " threads for parallel processing");
+        if (options.getShortlistSize() > 0) {
+            System.out.println("Histogram scoring: fully evaluating top " + options.getShortlistSize() + " keys per cipher and key length");
+        }
+        if (options.getCascadeFraction() > 0) {
+            System.out.println("Cascaded scoring: each stage of the full sweeps keeps the best "
+                               + options.getCascadeFraction() + " of its keys");
+        }
+        if (options.isBatch()) {
+            System.out.println("Batch mode: each key of the full sweeps is enumerated once for all files");
+        }
+        if (options.getCrib() != null) {
+            System.out.println("Crib mode: solving keys from \"" + options.getCrib() + "\", Vigenère keys up to " + options.getMaxKeyLength());
+        }
+        if (options.isVigenereSolver()) {
+            System.out.println("Vigenère solver: key lengths up to " + options.getMaxKeyLength());
+        } else if (options.isExhaustive()) {
+            System.out.println("Exhaustive Vigenère: all keys up to 4 characters, top " + options.getSurvivorCount() + " per length evaluated");
+        }
+        if (options.isAffineSolver()) {
+            System.out.println("Affine solver: frequency alignment, full sweep only on low confidence");
+        }
+        if (options.isSubstitution()) {
+            System.out.println("Substitution: word-pattern attack, then hill-climbing restarts for " + options.getTimeBudgetMs() + " ms per file");
+        }
+        if (options.isAutokey()) {
+            System.out.println("Autokey: primers up to 4 characters, top " + options.getSurvivorCount() + " per length evaluated");
+        }
+        if (options.isLongKeys()) {
+            System.out.println("Long Vigenère keys: hill-climbing with " + options.getRestarts() + " restarts per key length");
+        }
+        if (options.getDictionaryFile() != null) {
+            try {
+                MappedDictionary dictionary = MappedDictionary.open(Paths.get(options.getDictionaryFile()));
+                DictionaryHeuristic.useDictionary(dictionary);
+                System.out.println("Dictionary: " + dictionary.getWordCount() + " words from " + options.getDictionaryFile());
+            } catch (IOException e) {
+                System.err.println("Error loading dictionary: " + e.getMessage());
+                return;
+            }
+        }
         System.out.println();
         
         Timer totalTimer = new Timer();
@@ -415,19 +1496,34 @@ public class BruteForceSearch {
             Map<String, Long> fileTimings = new LinkedHashMap<>();
             int totalCandidates = 0;
             
-            // Process each file
-            for (Path file : txtFiles) {
-                String fileName = file.getFileName().toString();
-                String content = Files.readString(file);
-                
-                List<DecryptionCandidate> fileCandidates = processFile(fileName, content, fileTimings, numThreads);
+            // Process each file, or all files in one batch
+            Map<String, List<DecryptionCandidate>> candidatesByFile = new LinkedHashMap<>();
+            if (options.isBatch()) {
+                List<String> fileNames = new ArrayList<>();
+                List<String> contents = new ArrayList<>();
+                for (Path file : txtFiles) {
+                    fileNames.add(file.getFileName().toString());
+                    contents.add(Files.readString(file));
+                }
+                candidatesByFile = processFiles(fileNames, contents, fileTimings, options);
+            } else {
+                for (Path file : txtFiles) {
+                    String fileName = file.getFileName().toString();
+                    String content = Files.readString(file);
+                    candidatesByFile.put(fileName, processFile(fileName, content, fileTimings, options));
+                }
+            }
+            
+            for (Map.Entry<String, List<DecryptionCandidate>> entry : candidatesByFile.entrySet()) {
+                String fileName = entry.getKey();
+                List<DecryptionCandidate> fileCandidates = entry.getValue();
                 totalCandidates += fileCandidates.size();
                 
                 // Sort candidates for this file by combined score (highest first)
                 fileCandidates.sort((a, b) -> Double.compare(b.getCombinedScore(), a.getCombinedScore()));
                 
                 // Get top 5 results for this file
-                List<DecryptionCandidate> topFileResults = fileCandidates.subList(0, Math.min(5, fileCandidates.size()));
+                List<DecryptionCandidate> topFileResults = fileCandidates.subList(0, Math.min(SearchOptions.DEFAULT_TOP_COUNT, fileCandidates.size()));
                 resultsByFile.put(fileName, topFileResults);
                 
                 System.out.println("  Top 5 results for " + fileName + ":");
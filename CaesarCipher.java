@@ -2,9 +2,10 @@
  * Implementation of the Caesar cipher
  * Shifts each character by a fixed amount in the alphabet
  */
-public class CaesarCipher {
+public class CaesarCipher implements Cipher {
     
     private int shift;
+    private SubstitutionTable table;  // Compiled decryption table for this shift
     
     /**
      * Creates a Caesar cipher with the specified shift value
@@ -12,6 +13,7 @@ public class CaesarCipher {
      */
     public CaesarCipher(int shift) {
         this.shift = shift;
+        this.table = KeyCompiler.caesar(shift);
     }
     
     /**
@@ -19,6 +21,7 @@ public class CaesarCipher {
      * @param plaintext The text to encrypt
      * @return The encrypted text
      */
+    @Override
     public String encrypt(String plaintext) {
         StringBuilder ciphertext = new StringBuilder();
         
@@ -47,27 +50,28 @@ public class CaesarCipher {
      * @param ciphertext The text to decrypt
      * @return The decrypted text
      */
+    @Override
     public String decrypt(String ciphertext) {
-        StringBuilder plaintext = new StringBuilder();
-        
-        for (char c : ciphertext.toCharArray()) {
-            if (c == ' ') {
-                // Spaces pass through unchanged
-                plaintext.append(c);
-            } else {
-                int index = CipherUtils.getAlphabetIndex(c);
-                if (index != -1) {
-                    // Character is in our alphabet, shift it back
-                    int newIndex = (index - shift + CipherUtils.getAlphabetSize()) % CipherUtils.getAlphabetSize();
-                    plaintext.append(CipherUtils.getAlphabetChar(newIndex));
-                } else {
-                    // Character not in alphabet, pass through unchanged
-                    plaintext.append(c);
-                }
-            }
-        }
-        
-        return plaintext.toString();
+        // Spaces and characters not in the alphabet map to themselves in the table
+        return table.apply(ciphertext);
+    }
+    
+    /**
+     * Decrypts pre-encoded text into a reusable buffer
+     * @param encoded The encoded ciphertext
+     * @param out The output buffer for the decrypted alphabet indices
+     */
+    @Override
+    public void decryptInto(EncodedText encoded, byte[] out) {
+        table.applyInto(encoded, out);
+    }
+    
+    /**
+     * Gets the compiled decryption table for this shift
+     * @return The decryption table
+     */
+    public SubstitutionTable getTable() {
+        return table;
     }
     
     /**
@@ -77,4 +81,13 @@ public class CaesarCipher {
     public int getShift() {
         return shift;
     }
+    
+    /**
+     * Gets the key as a string representation
+     * @return The shift value as a string
+     */
+    @Override
+    public String getKey() {
+        return String.valueOf(shift);
+    }
 }
\ No newline at end of file
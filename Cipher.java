@@ -0,0 +1,35 @@
+/**
+ * Common interface for the cipher implementations
+ * Spaces and characters outside the alphabet always pass through unchanged
+ */
+public interface Cipher {
+    
+    /**
+     * Encrypts text using this cipher
+     * @param plaintext The text to encrypt
+     * @return The encrypted text
+     */
+    String encrypt(String plaintext);
+    
+    /**
+     * Decrypts text using this cipher
+     * @param ciphertext The text to decrypt
+     * @return The decrypted text
+     */
+    String decrypt(String ciphertext);
+    
+    /**
+     * Decrypts pre-encoded text into a caller-owned buffer without allocating
+     * Each entry of out receives the decrypted alphabet index, or
+     * EncodedText.PASS_THROUGH where the original character is kept
+     * @param encoded The encoded ciphertext
+     * @param out The output buffer, at least encoded.length() long
+     */
+    void decryptInto(EncodedText encoded, byte[] out);
+    
+    /**
+     * Gets the key as a string representation
+     * @return The key of this cipher
+     */
+    String getKey();
+}
\ No newline at end of file
@@ -1,3 +1,6 @@
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Main class to test cipher implementations
  * Tests Caesar and Vigenère ciphers with various keys and lorem ipsum text
@@ -7,6 +10,9 @@ public class CipherTest {
     // Sample lorem ipsum text for testing
     private static final String LOREM_IPSUM = "the quick brown fox jumps over thirteen lazy dogs. Lorem ipsum dolor sit amet, consectetur adipiscing elit. Sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.";
     
+    // English text long enough for the long-key hill climber
+    private static final String ENGLISH_TEXT = "It was the best of times, it was the worst of times, it was the age of wisdom, it was the age of foolishness, it was the epoch of belief, it was the epoch of incredulity, it was the season of Light, it was the season of Darkness, it was the spring of hope, it was the winter of despair, we had everything before us, we had nothing before us, we were all going direct to Heaven, we were all going direct the other way. In short, the period was so far like the present period, that some of its noisiest authorities insisted on its being received, for good or for evil, in the superlative degree of comparison only.";
+    
     public static void main(String[] args) {
         System.out.println("Cipher Implementation Test");
         System.out.println("=========================");
@@ -19,6 +25,34 @@ public class CipherTest {
         
         // Test Vigenère cipher
         testVigenereCipher();
+        System.out.println();
+        
+        // Test the allocation-free decryption path
+        testDecryptInto();
+        System.out.println();
+        
+        // Test key recovery by the long-key search
+        testLongKeySearch();
+        System.out.println();
+        
+        // Test key recovery from a known crib
+        testCribSolver();
+        System.out.println();
+        
+        // Test the Affine solver and its fallback sweep
+        testAffineSolver();
+        System.out.println();
+        
+        // Test the Autokey cipher and its primer search
+        testAutokey();
+        System.out.println();
+        
+        // Test substitution recovery from word patterns
+        testWordPatternSolver();
+        System.out.println();
+        
+        // Test that the scoring cascade keeps the full scores
+        testScoringCascade();
     }
     
     /**
@@ -91,4 +125,215 @@ public class CipherTest {
         System.out.println("Match: " + "test message".equals(decMixed));
         System.out.println();
     }
+    
+    /**
+     * Tests that decryptInto on encoded text matches decrypt for every cipher
+     */
+    private static void testDecryptInto() {
+        System.out.println("Testing decryptInto on Encoded Text");
+        System.out.println("===================================");
+        
+        String text = "the quick brown fox jumps over thirteen lazy dogs... caf\u00e9 @ 100%";
+        Cipher[] ciphers = {
+            new CaesarCipher(7),
+            new VigenereCipher("Bop1"),
+            new VigenereCipher("a@b"),
+            new AffineCipher(3, 7),
+            new AutokeyCipher("Bop1"),
+            new SubstitutionCipher(new StringBuilder(CipherUtils.ALPHABET).reverse().toString())
+        };
+        
+        for (Cipher cipher : ciphers) {
+            String encrypted = cipher.encrypt(text);
+            EncodedText encoded = new EncodedText(encrypted);
+            byte[] buffer = encoded.newBuffer();
+            cipher.decryptInto(encoded, buffer);
+            String decrypted = encoded.decode(buffer);
+            
+            System.out.println("Test: " + cipher.getClass().getSimpleName() + " with key " + cipher.getKey());
+            System.out.println("Decrypted: " + decrypted);
+            System.out.println("Match: " + cipher.decrypt(encrypted).equals(decrypted));
+            System.out.println();
+        }
+    }
+    
+    /**
+     * Tests that the long-key hill climber recovers known keys longer than the sweeps cover
+     */
+    private static void testLongKeySearch() {
+        System.out.println("Testing Long-Key Vigenère Search");
+        System.out.println("================================");
+        
+        String[] keys = {"Security9", "ThisIsAVeryLongKey42"};
+        
+        for (String key : keys) {
+            String encrypted = new VigenereCipher(key).encrypt(ENGLISH_TEXT);
+            List<DecryptionCandidate> candidates = BruteForceSearch.searchVigenereLongKeys(
+                    "long-key test", new EncodedText(encrypted), Runtime.getRuntime().availableProcessors(), 20);
+            
+            // The best-scoring candidate should carry the original key
+            DecryptionCandidate best = null;
+            for (DecryptionCandidate candidate : candidates) {
+                if (best == null || candidate.getCombinedScore() > best.getCombinedScore()) {
+                    best = candidate;
+                }
+            }
+            
+            System.out.println("Test: long-key search for key '" + key + "'");
+            System.out.println("Found:     " + (best == null ? "none" : best.getKey()));
+            System.out.println("Match: " + (best != null && ("key=" + key).equals(best.getKey())));
+            System.out.println();
+        }
+    }
+    
+    /**
+     * Tests that the crib solver recovers keys from a crib that starts a line
+     */
+    private static void testCribSolver() {
+        System.out.println("Testing Crib Solver");
+        System.out.println("===================");
+        
+        String text = "first line\nquick brown fox jumps over the lazy dog";
+        String crib = "quick brown";
+        
+        System.out.println("Test: Caesar shift 7 from crib '" + crib + "' after a newline");
+        CribSolver caesarSolver = new CribSolver(new EncodedText(new CaesarCipher(7).encrypt(text)), crib);
+        System.out.println("Shifts:    " + caesarSolver.caesarShifts());
+        System.out.println("Match: " + caesarSolver.caesarShifts().contains(7));
+        System.out.println();
+        
+        System.out.println("Test: Vigenère key 'Bop1' from crib '" + crib + "' after a newline");
+        CribSolver vigenereSolver = new CribSolver(new EncodedText(new VigenereCipher("Bop1").encrypt(text)), crib);
+        System.out.println("Keys:      " + vigenereSolver.vigenereKeys(4));
+        System.out.println("Match: " + vigenereSolver.vigenereKeys(4).contains("Bop1"));
+        System.out.println();
+    }
+    
+    /**
+     * Tests that the Affine solver recovers a key by frequency alignment, and sweeps
+     * every key when the ciphertext is too short to trust the alignment
+     */
+    private static void testAffineSolver() {
+        System.out.println("Testing Affine Solver");
+        System.out.println("=====================");
+        
+        System.out.println("Test: frequency alignment for key (5, 11)");
+        AffineSolver solver = new AffineSolver(new EncodedText(new AffineCipher(5, 11).encrypt(ENGLISH_TEXT)));
+        List<int[]> keys = solver.candidateKeys();
+        int[] best = keys.get(0);
+        System.out.println("Best key:  (" + best[0] + ", " + best[1] + "), confident: " + solver.isConfident(keys));
+        System.out.println("Match: " + (best[0] == 5 && best[1] == 11 && solver.isConfident(keys)));
+        System.out.println();
+        
+        System.out.println("Test: fallback sweep for key (5, 11) on a short text");
+        EncodedText shortText = new EncodedText(new AffineCipher(5, 11).encrypt("hello world"));
+        AffineSolver shortSolver = new AffineSolver(shortText);
+        List<DecryptionCandidate> candidates = BruteForceSearch.searchAffineSolver("affine test", shortText, 0, 5);
+        boolean swept = false;
+        for (DecryptionCandidate candidate : candidates) {
+            swept |= candidate.getKey().equals("(5, 11)");
+        }
+        System.out.println("Confident: " + shortSolver.isConfident(shortSolver.candidateKeys())
+                           + ", candidates: " + candidates.size());
+        System.out.println("Match: " + (!shortSolver.isConfident(shortSolver.candidateKeys()) && candidates.size() > 5 && swept));
+        System.out.println();
+    }
+    
+    /**
+     * Tests Autokey round-trips and that the primer search recovers a known primer
+     */
+    private static void testAutokey() {
+        System.out.println("Testing Autokey Cipher");
+        System.out.println("======================");
+        
+        String[] primers = {"K", "Key", "Bop1"};
+        
+        for (String primer : primers) {
+            System.out.println("Test: Autokey cipher with primer '" + primer + "'");
+            AutokeyCipher autokey = new AutokeyCipher(primer);
+            String encrypted = autokey.encrypt(LOREM_IPSUM);
+            String decrypted = autokey.decrypt(encrypted);
+            
+            System.out.println("Encrypted: " + encrypted.substring(0, Math.min(50, encrypted.length())) + "...");
+            System.out.println("Decrypted: " + decrypted.substring(0, Math.min(50, decrypted.length())) + "...");
+            System.out.println("Match: " + LOREM_IPSUM.equals(decrypted));
+            System.out.println();
+        }
+        
+        System.out.println("Test: primer search for primer 'Key'");
+        String encrypted = new AutokeyCipher("Key").encrypt(ENGLISH_TEXT);
+        List<DecryptionCandidate> candidates = BruteForceSearch.searchAutokey(
+                "autokey test", new EncodedText(encrypted), Runtime.getRuntime().availableProcessors(), 50);
+        DecryptionCandidate best = null;
+        for (DecryptionCandidate candidate : candidates) {
+            if (best == null || candidate.getCombinedScore() > best.getCombinedScore()) {
+                best = candidate;
+            }
+        }
+        System.out.println("Found:     " + (best == null ? "none" : best.getKey()));
+        System.out.println("Match: " + (best != null && "primer=Key".equals(best.getKey())));
+        System.out.println();
+    }
+    
+    /**
+     * Tests that the word-pattern solver recovers a substitution mapping from dictionary words
+     * Only the symbols in the ciphertext are fixed by the words, so the mapping is checked
+     * through the text it decrypts
+     */
+    private static void testWordPatternSolver() {
+        System.out.println("Testing Word Pattern Solver");
+        System.out.println("===========================");
+        
+        String text = "the angry brown cat and the quick black dog jump over the wooden box";
+        SubstitutionCipher substitution = new SubstitutionCipher(new StringBuilder(CipherUtils.ALPHABET).reverse().toString());
+        String encrypted = substitution.encrypt(text);
+        List<int[]> mappings = new WordPatternSolver(new EncodedText(encrypted)).solve(5);
+        String decrypted = mappings.isEmpty() ? "" : SubstitutionCipher.fromDecryptMap(mappings.get(0)).decrypt(encrypted);
+        
+        System.out.println("Test: word patterns for the reversed alphabet");
+        System.out.println("Encrypted: " + encrypted);
+        System.out.println("Decrypted: " + decrypted);
+        System.out.println("Match: " + text.equals(decrypted));
+        System.out.println();
+    }
+    
+    /**
+     * Tests that the survivors of the scoring cascade get the same combined score as a
+     * full evaluation of their decrypted text
+     */
+    private static void testScoringCascade() {
+        System.out.println("Testing Scoring Cascade");
+        System.out.println("=======================");
+        
+        List<String> fileNames = Collections.singletonList("cascade test");
+        List<EncodedText> encodedFiles = Collections.singletonList(new EncodedText(new VigenereCipher("Bop1").encrypt(LOREM_IPSUM)));
+        int threads = Runtime.getRuntime().availableProcessors();
+        
+        String[] names = {"Caesar", "Vigenère", "Affine"};
+        for (String name : names) {
+            ScoringCascade cascade = new ScoringCascade(0.1, SearchOptions.DEFAULT_TOP_COUNT);
+            List<DecryptionCandidate> survivors;
+            if (name.equals("Caesar")) {
+                survivors = BruteForceSearch.searchCaesar(fileNames, encodedFiles, SearchOptions.DEFAULT_TOP_COUNT, cascade).get(0);
+            } else if (name.equals("Vigenère")) {
+                survivors = BruteForceSearch.searchVigenere(fileNames, encodedFiles, threads, SearchOptions.DEFAULT_TOP_COUNT, cascade).get(0);
+            } else {
+                survivors = BruteForceSearch.searchAffine(fileNames, encodedFiles, SearchOptions.DEFAULT_TOP_COUNT, cascade).get(0);
+            }
+            
+            // Score each survivor again from its text alone
+            boolean sameScores = !survivors.isEmpty();
+            for (DecryptionCandidate survivor : survivors) {
+                DecryptionCandidate full = new DecryptionCandidate(name, survivor.getKey(), survivor.getFileName(),
+                                                                   survivor.getCipherText(), survivor.getDecryptedText());
+                full.evaluate();
+                sameScores &= full.getCombinedScore() == survivor.getCombinedScore();
+            }
+            
+            System.out.println("Test: " + name + " cascade keeping 0.1 of each stage");
+            System.out.println("Survivors: " + survivors.size() + ", " + cascade.getReport());
+            System.out.println("Match: " + sameScores);
+            System.out.println();
+        }
+    }
 }
\ No newline at end of file
@@ -7,13 +7,22 @@ public class CipherUtils {
     // The alphabet as specified in the requirements
     public static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789.:;'!?";
     
+    // Direct lookup from ASCII character to alphabet index (-1 if not in the alphabet)
+    private static final byte[] ALPHABET_INDEX = new byte[128];
+    static {
+        java.util.Arrays.fill(ALPHABET_INDEX, (byte) -1);
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            ALPHABET_INDEX[ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+    
     /**
      * Gets the index of a character in the alphabet
      * @param c The character to find
      * @return The index of the character, or -1 if not found
      */
     public static int getAlphabetIndex(char c) {
-        return ALPHABET.indexOf(c);
+        return c < ALPHABET_INDEX.length ? ALPHABET_INDEX[c] : -1;
     }
     
     /**
@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Known-plaintext solver that recovers keys from a crib, a piece of text known to be in
+ * the message. Spaces and characters outside the alphabet pass through every cipher, so
+ * the crib can only sit where the ciphertext has the same word layout; the crib is tried
+ * at every word start that fits, and at each alignment the Caesar shift, the Affine pair
+ * and the Vigenère key characters are solved from the crib characters directly. Keys that
+ * contradict any crib character are never produced
+ */
+public class CribSolver {
+    
+    private static final int SIZE = CipherUtils.getAlphabetSize();
+    
+    private final EncodedText encoded;
+    private final byte[] cribIndices;   // Alphabet index of each crib character, or PASS_THROUGH
+    private final char[] cribChars;
+    private final int cribLetters;      // Number of crib characters in the alphabet
+    private final int[] alphabetBefore; // Number of alphabet characters before each position
+    private final List<Integer> alignments;
+    
+    /**
+     * Creates a solver for one ciphertext and crib
+     * @param encoded The encoded ciphertext
+     * @param crib The known plaintext
+     */
+    public CribSolver(EncodedText encoded, String crib) {
+        this.encoded = encoded;
+        EncodedText encodedCrib = new EncodedText(crib);
+        this.cribIndices = encodedCrib.getIndices();
+        this.cribChars = crib.toCharArray();
+        this.cribLetters = encodedCrib.getAlphabetCount();
+        
+        this.alphabetBefore = new int[encoded.length() + 1];
+        for (int i = 0; i < encoded.length(); i++) {
+            alphabetBefore[i + 1] = alphabetBefore[i] + (encoded.isPassThrough(i) ? 0 : 1);
+        }
+        
+        this.alignments = new ArrayList<>();
+        for (int start = 0; start + cribChars.length <= encoded.length(); start++) {
+            boolean wordStart = start == 0 || WordLayout.isDelimiter(encoded, start - 1);
+            if (wordStart && fits(start)) {
+                alignments.add(start);
+            }
+        }
+    }
+    
+    /**
+     * Checks that the crib has the ciphertext's layout at a position: pass-through
+     * characters must match exactly and alphabet characters must face alphabet characters
+     */
+    private boolean fits(int start) {
+        for (int i = 0; i < cribChars.length; i++) {
+            if (cribIndices[i] == EncodedText.PASS_THROUGH) {
+                if (encoded.charAt(start + i) != cribChars[i]) {
+                    return false;
+                }
+            } else if (encoded.isPassThrough(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Gets the positions where the crib fits the ciphertext
+     * @return The start position of each alignment
+     */
+    public List<Integer> getAlignments() {
+        return alignments;
+    }
+    
+    /**
+     * Solves the Caesar shift at every alignment
+     * @return The distinct shifts from 1 to alphabet size - 1 that are consistent with the crib
+     */
+    public Set<Integer> caesarShifts() {
+        Set<Integer> shifts = new LinkedHashSet<>();
+        for (int start : alignments) {
+            // Every crib character must agree on c = p + shift
+            int shift = -1;
+            boolean consistent = true;
+            for (int i = 0; i < cribChars.length && consistent; i++) {
+                if (cribIndices[i] != EncodedText.PASS_THROUGH) {
+                    int difference = Math.floorMod(encoded.getIndices()[start + i] - cribIndices[i], SIZE);
+                    consistent = shift == -1 || shift == difference;
+                    shift = difference;
+                }
+            }
+            if (consistent && shift > 0) {
+                shifts.add(shift);
+            }
+        }
+        return shifts;
+    }
+    
+    /**
+     * Solves the Affine key pair at every alignment
+     * For each valid a, b follows from the first crib character and is checked against the rest
+     * @return The distinct canonical (a, b) pairs consistent with the crib
+     */
+    public List<int[]> affineKeys() {
+        List<int[]> keys = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        byte[] indices = encoded.getIndices();
+        int first = firstCribLetter();
+        if (first == -1) {
+            return keys;
+        }
+        
+        for (int start : alignments) {
+            for (int a : AffineCipher.getValidMultiplicativeKeys()) {
+                // c = a * p + b (mod size)
+                int b = Math.floorMod(indices[start + first] - a * cribIndices[first], SIZE);
+                boolean consistent = true;
+                for (int i = first + 1; i < cribChars.length && consistent; i++) {
+                    if (cribIndices[i] != EncodedText.PASS_THROUGH) {
+                        consistent = (a * cribIndices[i] + b) % SIZE == indices[start + i];
+                    }
+                }
+                if (consistent && KeySpace.isCanonicalAffine(a, b) && seen.add(a * SIZE + b)) {
+                    keys.add(new int[] {a, b});
+                }
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * Solves the Vigenère key of every length the crib covers at every alignment
+     * The key advances only on alphabet characters, so each crib character fixes the key
+     * character of its column; lengths longer than the crib's letters leave columns unknown
+     * and are not tried
+     * @param maxKeyLength The longest key length to solve
+     * @return The distinct canonical keys consistent with the crib
+     */
+    public Set<String> vigenereKeys(int maxKeyLength) {
+        Set<String> keys = new LinkedHashSet<>();
+        byte[] indices = encoded.getIndices();
+        int longest = Math.min(maxKeyLength, cribLetters);
+        
+        for (int start : alignments) {
+            for (int keyLength = 1; keyLength <= longest; keyLength++) {
+                int[] shifts = new int[keyLength];
+                Arrays.fill(shifts, -1);
+                boolean consistent = true;
+                
+                for (int i = 0; i < cribChars.length && consistent; i++) {
+                    if (cribIndices[i] != EncodedText.PASS_THROUGH) {
+                        int column = alphabetBefore[start + i] % keyLength;
+                        int shift = Math.floorMod(indices[start + i] - cribIndices[i], SIZE);
+                        consistent = shifts[column] == -1 || shifts[column] == shift;
+                        shifts[column] = shift;
+                    }
+                }
+                if (!consistent) {
+                    continue;
+                }
+                
+                char[] key = new char[keyLength];
+                for (int column = 0; column < keyLength; column++) {
+                    key[column] = CipherUtils.getAlphabetChar(shifts[column]);
+                }
+                String canonical = VigenereSolver.shortestPeriod(new String(key));
+                if (KeySpace.isCanonicalVigenere(canonical)) {
+                    keys.add(canonical);
+                }
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * Gets the position of the first crib character in the alphabet
+     */
+    private int firstCribLetter() {
+        for (int i = 0; i < cribIndices.length; i++) {
+            if (cribIndices[i] != EncodedText.PASS_THROUGH) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
\ No newline at end of file
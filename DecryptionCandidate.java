@@ -1,9 +1,18 @@
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents a decryption candidate with its score and metadata
+ * Candidates created from a cipher and the encoded ciphertext hold only the cipher,
+ * which carries the key, and the scores; the key label, decrypted text and summary
+ * are built on first request, so only candidates that reach the output pay for them
  */
 public class DecryptionCandidate {
     private String cipherName;
     private String key;
+    private String keyPrefix;
+    private Cipher cipher;
+    private EncodedText encoded;
     private String fileName;
     private String cipherText;
     private String decryptedText;
@@ -12,6 +21,15 @@ public class DecryptionCandidate {
     private double dictionaryScore;
     private double graphemeScore;
     private String summary;
+    private List<String> equivalentKeys = Collections.emptyList();
+    
+    // Heuristics shared by all candidates and threads
+    private static final Heuristic LETTER_HEURISTIC = LetterFrequencyHeuristic.INSTANCE;
+    private static final Heuristic DICTIONARY_HEURISTIC = DictionaryHeuristic.INSTANCE;
+    private static final Heuristic GRAPHEME_HEURISTIC = GraphemeHeuristic.INSTANCE;
+    
+    // Margin below a threshold before a bound rules a candidate out, covering rounding in the sums
+    static final double BOUND_SLACK = 1e-9;
     
     public DecryptionCandidate(String cipherName, String key, String fileName, 
                               String cipherText, String decryptedText) {
@@ -27,42 +45,195 @@ public class DecryptionCandidate {
         this.summary = "";
     }
     
+    /**
+     * Creates a candidate that decrypts the ciphertext only when its text is requested
+     * @param cipherName The name of the cipher
+     * @param keyPrefix The label put before the cipher's key, e.g. "key="
+     * @param cipher The cipher with the candidate key
+     * @param fileName The name of the file
+     * @param encoded The encoded ciphertext
+     */
+    public DecryptionCandidate(String cipherName, String keyPrefix, Cipher cipher,
+                               String fileName, EncodedText encoded) {
+        this.cipherName = cipherName;
+        this.keyPrefix = keyPrefix;
+        this.cipher = cipher;
+        this.fileName = fileName;
+        this.encoded = encoded;
+        this.summary = null;
+    }
+    
     /**
      * Evaluates this candidate using all available heuristics
+     * A lazy candidate decrypts its text for scoring without keeping it
      */
     public void evaluate() {
-        LetterFrequencyHeuristic letterHeuristic = new LetterFrequencyHeuristic();
-        DictionaryHeuristic dictHeuristic = new DictionaryHeuristic();
-        GraphemeHeuristic graphemeHeuristic = new GraphemeHeuristic();
+        evaluate(decryptedText != null ? decryptedText : decrypt());
+    }
+    
+    /**
+     * Evaluates this candidate on its already decrypted text using all available heuristics
+     * The text is analyzed once for all heuristics and only scored, not kept
+     * @param decryptedText The decrypted text of this candidate
+     */
+    public void evaluate(String decryptedText) {
+        AnalyzedText text = AnalyzedText.forThread(decryptedText, wordLayout());
+        setScores(LETTER_HEURISTIC.score(text), DICTIONARY_HEURISTIC.score(text), GRAPHEME_HEURISTIC.score(text));
+    }
+    
+    /**
+     * Evaluates this candidate unless its combined score cannot reach a threshold
+     * Each heuristic runs bounded by what the others can still contribute at most, so
+     * hopeless texts stop after a fraction of the work and the remaining heuristics are skipped
+     * @param decryptedText The decrypted text of this candidate
+     * @param threshold The combined score the candidate must reach to be of use
+     * @return True if the candidate was fully scored; false if it cannot reach the
+     *         threshold, in which case its scores are not set
+     */
+    public boolean evaluate(String decryptedText, double threshold) {
+        Heuristic letterHeuristic = LETTER_HEURISTIC;
+        Heuristic dictHeuristic = DICTIONARY_HEURISTIC;
+        Heuristic graphemeHeuristic = GRAPHEME_HEURISTIC;
+        AnalyzedText text = AnalyzedText.forThread(decryptedText, wordLayout());
+        double target = 3.0 * threshold;
         
-        this.letterFrequencyScore = letterHeuristic.analyze(decryptedText);
-        this.dictionaryScore = dictHeuristic.analyze(decryptedText);
-        this.graphemeScore = graphemeHeuristic.analyze(decryptedText);
+        double letterScore = bounded(letterHeuristic, text,
+                                     target - dictHeuristic.getMaxScore() - graphemeHeuristic.getMaxScore(),
+                                     dictHeuristic.getMaxScore() + graphemeHeuristic.getMaxScore(), threshold);
+        if (Double.isNaN(letterScore)) {
+            return false;
+        }
+        double dictionaryScore = bounded(dictHeuristic, text,
+                                         target - letterScore - graphemeHeuristic.getMaxScore(),
+                                         letterScore + graphemeHeuristic.getMaxScore(), threshold);
+        if (Double.isNaN(dictionaryScore)) {
+            return false;
+        }
+        double graphemeScore = bounded(graphemeHeuristic, text,
+                                       target - letterScore - dictionaryScore,
+                                       letterScore + dictionaryScore, threshold);
+        if (Double.isNaN(graphemeScore)) {
+            return false;
+        }
+        
+        setScores(letterScore, dictionaryScore, graphemeScore);
+        return true;
+    }
+    
+    /**
+     * Runs one heuristic bounded by the score it needs for the combined score to reach a threshold
+     * @param others The most the other heuristics can add to the sum of the three scores
+     * @return The exact score, or NaN if the combined score cannot reach the threshold
+     */
+    private static double bounded(Heuristic heuristic, AnalyzedText text, double needed, double others, double threshold) {
+        double score = heuristic.scoreBounded(text, needed);
+        if (score >= needed) {
+            return score;
+        }
+        // The score is an upper bound; rerun in full if it still leaves the threshold in reach
+        if ((score + others) / 3.0 < threshold - BOUND_SLACK) {
+            return Double.NaN;
+        }
+        return heuristic.score(text);
+    }
+    
+    /**
+     * Sets the heuristic scores when they were computed elsewhere, e.g. incrementally
+     * The summary is built on first request by re-running the heuristics
+     * @param letterFrequencyScore The letter frequency score
+     * @param dictionaryScore The dictionary score
+     * @param graphemeScore The grapheme score
+     */
+    public void setScores(double letterFrequencyScore, double dictionaryScore, double graphemeScore) {
+        this.letterFrequencyScore = letterFrequencyScore;
+        this.dictionaryScore = dictionaryScore;
+        this.graphemeScore = graphemeScore;
         
         // Combined score is the average of all heuristics
-        this.combinedScore = (letterFrequencyScore + dictionaryScore + graphemeScore) / 3.0;
+        this.combinedScore = combine(letterFrequencyScore, dictionaryScore, graphemeScore);
+        this.summary = null;
+    }
+    
+    /**
+     * Combines the heuristic scores the way every candidate does, so a score can be
+     * checked against a collector before the candidate is built
+     * @param letterFrequencyScore The letter frequency score
+     * @param dictionaryScore The dictionary score
+     * @param graphemeScore The grapheme score
+     * @return The average of the heuristic scores
+     */
+    static double combine(double letterFrequencyScore, double dictionaryScore, double graphemeScore) {
+        return (letterFrequencyScore + dictionaryScore + graphemeScore) / 3.0;
+    }
+    
+    /**
+     * Records the keys, of this or other ciphers, that decrypt to the same text
+     * @param equivalentKeys The equivalent keys, each prefixed with its cipher name
+     */
+    public void setEquivalentKeys(List<String> equivalentKeys) {
+        this.equivalentKeys = equivalentKeys;
+    }
+    
+    /**
+     * Gets the word layout this candidate's decryption shares with every other key of its file
+     * @return The layout, or null if the candidate was built from its text
+     */
+    private WordLayout wordLayout() {
+        return encoded == null ? null : encoded.getWordLayout();
+    }
+    
+    /**
+     * Decrypts the encoded ciphertext with this candidate's cipher
+     */
+    private String decrypt() {
+        byte[] buffer = encoded.newBuffer();
+        cipher.decryptInto(encoded, buffer);
+        return encoded.decode(buffer);
+    }
+    
+    /**
+     * Creates the summary combining all heuristic summaries
+     */
+    private String buildSummary() {
+        AnalyzedText text = new AnalyzedText(getDecryptedText());
         
-        // Create summary combining all heuristic summaries
-        this.summary = String.format("Letter frequency: %.3f (%s), Dictionary: %.3f (%s), Grapheme: %.3f (%s)", 
-                                    letterFrequencyScore, letterHeuristic.getSummary(),
-                                    dictionaryScore, dictHeuristic.getSummary(),
-                                    graphemeScore, graphemeHeuristic.getSummary());
+        return String.format("Letter frequency: %s, Dictionary: %s, Grapheme: %s", 
+                             LETTER_HEURISTIC.evaluate(text), DICTIONARY_HEURISTIC.evaluate(text),
+                             GRAPHEME_HEURISTIC.evaluate(text));
     }
     
     // Getters
     public String getCipherName() { return cipherName; }
-    public String getKey() { return key; }
     public String getFileName() { return fileName; }
-    public String getCipherText() { return cipherText; }
-    public String getDecryptedText() { return decryptedText; }
     public double getCombinedScore() { return combinedScore; }
     public double getLetterFrequencyScore() { return letterFrequencyScore; }
     public double getDictionaryScore() { return dictionaryScore; }
     public double getGraphemeScore() { return graphemeScore; }
-    public String getSummary() { return summary; }
+    public List<String> getEquivalentKeys() { return equivalentKeys; }
+    public String getKey() {
+        if (key == null) {
+            key = keyPrefix + cipher.getKey();
+        }
+        return key;
+    }
+    public String getCipherText() {
+        return cipherText != null ? cipherText : encoded.getText();
+    }
+    public String getDecryptedText() {
+        if (decryptedText == null) {
+            decryptedText = decrypt();
+        }
+        return decryptedText;
+    }
+    public String getSummary() {
+        if (summary == null) {
+            summary = buildSummary();
+        }
+        return summary;
+    }
     
     @Override
     public String toString() {
-        return String.format("%s [%s] %s: %.3f", cipherName, key, fileName, combinedScore);
+        return String.format("%s [%s] %s: %.3f", cipherName, getKey(), fileName, combinedScore);
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Build step that compiles a word list into the binary dictionary MappedDictionary reads
+ * The words form a trie whose identical subtrees are stored once (a minimal acyclic
+ * automaton), so shared suffixes such as "-ing" and "-tion" take no extra space
+ * 
+ * File layout, big-endian:
+ *   header: magic, version, word count, shortest and longest word length, root offset (ints)
+ *   nodes:  one byte (0x80 if a word ends here, plus the number of children), then per child
+ *           its letter as one byte and the absolute offset of its node as an int, letters ascending
+ * Children are written before their parents, so the root comes last
+ * 
+ * Usage: java DictionaryCompiler [word list] [output file]
+ */
+public class DictionaryCompiler {
+    
+    public static final int MAGIC = 0x44545249;  // "DTRI"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 6 * 4;
+    public static final int TERMINAL = 0x80;
+    
+    /**
+     * Node of the trie while it is being built
+     */
+    private static class Node {
+        boolean terminal;
+        final TreeMap<Character, Node> children = new TreeMap<>();
+    }
+    
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: java DictionaryCompiler <word list> <output file>");
+            return;
+        }
+        
+        try {
+            Path input = Paths.get(args[0]);
+            Path output = Paths.get(args[1]);
+            
+            // One word per line; blank lines and lines starting with # are skipped
+            Set<String> words = new LinkedHashSet<>();
+            int skipped = 0;
+            for (String line : Files.readAllLines(input)) {
+                String word = line.trim().toLowerCase();
+                if (word.isEmpty() || word.startsWith("#")) {
+                    continue;
+                }
+                if (isPlainWord(word)) {
+                    words.add(word);
+                } else {
+                    skipped++;
+                }
+            }
+            
+            int size = compile(words, output);
+            System.out.println("Compiled " + words.size() + " words into " + size + " bytes: " + output);
+            if (skipped > 0) {
+                System.out.println("Skipped " + skipped + " entries that are not plain a-z words");
+            }
+        } catch (IOException e) {
+            System.err.println("Error compiling dictionary: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Checks whether a word can match cleaned text, which only holds the letters a-z
+     * @param word The lowercase word
+     * @return True if every character is a letter from a to z
+     */
+    public static boolean isPlainWord(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) < 'a' || word.charAt(i) > 'z') {
+                return false;
+            }
+        }
+        return !word.isEmpty();
+    }
+    
+    /**
+     * Compiles words into a dictionary file
+     * @param words The lowercase a-z words; duplicates are counted once
+     * @param output The file to write
+     * @return The size of the file in bytes
+     * @throws IOException If the file cannot be written
+     */
+    public static int compile(Collection<String> words, Path output) throws IOException {
+        // Build the trie
+        Node root = new Node();
+        int wordCount = 0;
+        int shortest = Integer.MAX_VALUE;
+        int longest = 0;
+        for (String word : words) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+            }
+            if (!node.terminal) {
+                node.terminal = true;
+                wordCount++;
+                shortest = Math.min(shortest, word.length());
+                longest = Math.max(longest, word.length());
+            }
+        }
+        if (wordCount == 0) {
+            shortest = 0;
+        }
+        
+        // Write the nodes children first, storing each distinct subtree once
+        ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(nodes);
+        int rootOffset = write(root, out, new HashMap<>());
+        out.flush();
+        
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(file);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(wordCount);
+        header.writeInt(shortest);
+        header.writeInt(longest);
+        header.writeInt(rootOffset);
+        nodes.writeTo(header);
+        header.flush();
+        
+        Files.write(output, file.toByteArray());
+        return file.size();
+    }
+    
+    /**
+     * Writes a node after its children, unless an identical node was already written
+     * @param node The node
+     * @param out The node section being written
+     * @param written The offset of each node written so far, keyed by its encoding
+     * @return The absolute file offset of the node
+     */
+    private static int write(Node node, DataOutputStream out, Map<String, Integer> written) throws IOException {
+        // A node is identified by whether a word ends there and where each child points
+        int[] childOffsets = new int[node.children.size()];
+        StringBuilder signature = new StringBuilder();
+        signature.append(node.terminal ? '1' : '0');
+        int i = 0;
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            childOffsets[i] = write(child.getValue(), out, written);
+            signature.append(child.getKey()).append(childOffsets[i]).append(',');
+            i++;
+        }
+        String key = signature.toString();
+        Integer existing = written.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        
+        int offset = HEADER_SIZE + out.size();
+        out.writeByte((node.terminal ? TERMINAL : 0) | node.children.size());
+        i = 0;
+        for (char letter : node.children.keySet()) {
+            out.writeByte(letter);
+            out.writeInt(childOffsets[i++]);
+        }
+        written.put(key, offset);
+        return offset;
+    }
+}
\ No newline at end of file
@@ -1,12 +1,16 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.StringTokenizer;
 
 /**
  * Heuristic that analyzes text by checking how many words match a dictionary of common English words
  * Higher scores indicate more dictionary matches
  */
-public class DictionaryHeuristic implements Heuristic {
+public class DictionaryHeuristic extends AbstractHeuristic {
     
     // Extended Basic English dictionary from Wiktionary (1995 words with 3+ letters)
     private static final Set<String> DICTIONARY = new HashSet<>();
@@ -218,51 +222,268 @@ public class DictionaryHeuristic implements Heuristic {
         }
     }
     
-    private String lastSummary = "";
+    // The same words in an open-addressed hash table with linear probing, for lookups of
+    // char slices without allocating; the capacity keeps the table at most half full
+    private static final char[][] WORD_TABLE;
+    private static final int TABLE_MASK;
+    static {
+        int capacity = Integer.highestOneBit(Math.max(1, DICTIONARY.size()) * 2 - 1) << 1;
+        WORD_TABLE = new char[capacity][];
+        TABLE_MASK = capacity - 1;
+        for (String word : DICTIONARY) {
+            char[] chars = word.toCharArray();
+            int slot = hash(chars, 0, chars.length) & TABLE_MASK;
+            while (WORD_TABLE[slot] != null) {
+                slot = (slot + 1) & TABLE_MASK;
+            }
+            WORD_TABLE[slot] = chars;
+        }
+    }
+    
+    // Length of the longest dictionary word; longer slices are rejected without probing
+    private static final int MAX_WORD_LENGTH;
+    static {
+        int maxLength = 0;
+        for (String word : DICTIONARY) {
+            maxLength = Math.max(maxLength, word.length());
+        }
+        MAX_WORD_LENGTH = maxLength;
+    }
+    
+    // The same words keyed by letter-repetition pattern, e.g. "ABCCD" for "hello"
+    private static final Map<String, List<String>> WORDS_BY_PATTERN = new HashMap<>();
+    static {
+        for (String word : DICTIONARY) {
+            WORDS_BY_PATTERN.computeIfAbsent(wordPattern(word), k -> new ArrayList<>()).add(word);
+        }
+        for (List<String> group : WORDS_BY_PATTERN.values()) {
+            Collections.sort(group);
+        }
+    }
+    
+    // Length of the shortest dictionary word, which bounds how many words the rest of a text holds
+    private static final int MIN_WORD_LENGTH;
+    static {
+        int minLength = Integer.MAX_VALUE;
+        for (String word : DICTIONARY) {
+            minLength = Math.min(minLength, word.length());
+        }
+        MIN_WORD_LENGTH = Math.max(1, minLength);
+    }
+    
+    // Compiled dictionary that replaces the built-in words for scoring, or null
+    private static volatile MappedDictionary externalDictionary;
+    
+    // Shared instance; scoring keeps no state, so every thread can use it
+    public static final DictionaryHeuristic INSTANCE = new DictionaryHeuristic();
+    
+    @Override
+    public double score(AnalyzedText text) {
+        return scoreBounded(text, Double.NEGATIVE_INFINITY);
+    }
     
+    /**
+     * Scores text, stopping once the words left cannot lift the ratio to the threshold
+     * At best every remaining word is a dictionary word of the shortest dictionary length,
+     * which bounds how far the ratio can still rise
+     */
     @Override
-    public double analyze(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            lastSummary = "No text to analyze";
+    public double scoreBounded(AnalyzedText text, double threshold) {
+        if (text.isBlank()) {
             return 0.0;
         }
+        return countWords(text, threshold, null);
+    }
+    
+    @Override
+    public HeuristicScore evaluate(AnalyzedText text) {
+        if (text.isBlank()) {
+            return HeuristicScore.of(0.0, "No text to analyze");
+        }
         
-        // Split text into words, removing punctuation
-        String cleanText = text.toLowerCase().replaceAll("[^a-zA-Z\\s]", "");
-        StringTokenizer tokenizer = new StringTokenizer(cleanText);
+        int[] counts = new int[2];
+        double score = countWords(text, Double.NEGATIVE_INFINITY, counts);
+        if (counts[0] == 0) {
+            return HeuristicScore.of(0.0, "No words found in text");
+        }
+        return new HeuristicScore(score, () -> String.format("Found %d/%d dictionary words (%.1f%%)", 
+                                                             counts[1], counts[0], score * 100));
+    }
+    
+    /**
+     * Counts the dictionary words of a text, stopping once the ratio cannot reach the threshold
+     * @param text The analyzed text, not blank
+     * @param threshold The lowest ratio the caller has a use for
+     * @param counts Receives the total and dictionary word counts, or null
+     * @return The ratio of dictionary words, or an upper bound on it below the threshold
+     */
+    private static double countWords(AnalyzedText text, double threshold, int[] counts) {
+        // Words of the text with punctuation removed, split as StringTokenizer would
+        char[] cleanText = text.getCleaned();
+        int length = text.getCleanedLength();
+        int wordCount = text.getWordCount();
+        WordLayout layout = text.getLayout();
+        int shortest = Math.max(1, getShortestWordLength());
         
         int totalWords = 0;
         int validWords = 0;
         
-        while (tokenizer.hasMoreTokens()) {
-            String word = tokenizer.nextToken().trim();
-            if (!word.isEmpty()) {
-                totalWords++;
-                if (DICTIONARY.contains(word)) {
-                    validWords++;
-                }
+        for (int word = 0; word < wordCount; word++) {
+            int start = text.getWordStart(word);
+            int end = text.getWordEnd(word);
+            totalWords++;
+            
+            // With the file's word layout, segments that can never match skip the lookup,
+            // and only the later segments that can match bound the words still to come
+            int segment = text.getWordSegment(word);
+            boolean matchable = layout == null || layout.isMatchable(segment);
+            if (matchable && isDictionaryWord(cleanText, start, end - start)) {
+                validWords++;
+            }
+            
+            int remainingWords = layout == null ? (length - end) / shortest : layout.getMatchableAfter(segment);
+            double bound = (double) (validWords + remainingWords) / (totalWords + remainingWords);
+            if (bound < threshold) {
+                return bound;
             }
         }
         
-        if (totalWords == 0) {
-            lastSummary = "No words found in text";
-            return 0.0;
+        if (counts != null) {
+            counts[0] = totalWords;
+            counts[1] = validWords;
         }
+        return totalWords == 0 ? 0.0 : (double) validWords / totalWords;
+    }
+    
+    /**
+     * Scores against a compiled dictionary instead of the built-in words
+     * Set it before searching; word layouts built earlier keep the old word lengths
+     * @param dictionary The dictionary, or null to return to the built-in words
+     */
+    public static void useDictionary(MappedDictionary dictionary) {
+        externalDictionary = dictionary;
+    }
+    
+    /**
+     * Gets the length of the shortest dictionary word
+     * @return The shortest word length
+     */
+    public static int getShortestWordLength() {
+        MappedDictionary external = externalDictionary;
+        return external != null ? external.getShortestWordLength() : MIN_WORD_LENGTH;
+    }
+    
+    /**
+     * Gets the length of the longest dictionary word
+     * @return The longest word length
+     */
+    public static int getLongestWordLength() {
+        MappedDictionary external = externalDictionary;
+        return external != null ? external.getLongestWordLength() : MAX_WORD_LENGTH;
+    }
+    
+    /**
+     * Gets the built-in dictionary words, which the word-pattern attack draws on
+     * @return An unmodifiable view of the lowercase dictionary words
+     */
+    public static Set<String> getWords() {
+        return Collections.unmodifiableSet(DICTIONARY);
+    }
+    
+    /**
+     * Checks whether a cleaned, lowercase word is in the dictionary
+     * @param word The word to look up
+     * @return True if the word is a dictionary word
+     */
+    public static boolean isDictionaryWord(String word) {
+        MappedDictionary external = externalDictionary;
+        return external != null ? external.contains(word) : DICTIONARY.contains(word);
+    }
+    
+    /**
+     * Checks whether a slice of a char array holds a cleaned, lowercase dictionary word
+     * Probes the open-addressed word table, or walks the compiled dictionary if one is
+     * in use, and does not allocate
+     * @param chars The characters
+     * @param start The start of the word
+     * @param length The length of the word
+     * @return True if the word is a dictionary word
+     */
+    public static boolean isDictionaryWord(char[] chars, int start, int length) {
+        MappedDictionary external = externalDictionary;
+        if (external != null) {
+            return external.contains(chars, start, length);
+        }
+        if (length > MAX_WORD_LENGTH) {
+            return false;
+        }
+        int slot = hash(chars, start, length) & TABLE_MASK;
         
-        double score = (double) validWords / totalWords;
-        lastSummary = String.format("Found %d/%d dictionary words (%.1f%%)", 
-                                   validWords, totalWords, score * 100);
-        
-        return score;
+        // An empty slot ends the probe sequence
+        for (char[] word = WORD_TABLE[slot]; word != null; word = WORD_TABLE[slot]) {
+            if (word.length == length && matches(word, chars, start)) {
+                return true;
+            }
+            slot = (slot + 1) & TABLE_MASK;
+        }
+        return false;
     }
     
-    @Override
-    public String getName() {
-        return "Dictionary Matching";
+    /**
+     * Hashes a slice of a char array, as String.hashCode() with its bits spread
+     */
+    private static int hash(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+    
+    /**
+     * Compares a word with a slice of the same length
+     */
+    private static boolean matches(char[] word, char[] chars, int start) {
+        for (int i = 0; i < word.length; i++) {
+            if (word[i] != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Gets the letter-repetition pattern of a word: each distinct character is replaced
+     * by a letter in order of first appearance, so "hello" and "jazzy" are both "ABCCD"
+     * @param word The word, in any alphabet
+     * @return The pattern
+     */
+    public static String wordPattern(CharSequence word) {
+        char[] pattern = new char[word.length()];
+        Map<Character, Character> labels = new HashMap<>();
+        for (int i = 0; i < word.length(); i++) {
+            Character label = labels.get(word.charAt(i));
+            if (label == null) {
+                label = (char) ('A' + labels.size());
+                labels.put(word.charAt(i), label);
+            }
+            pattern[i] = label;
+        }
+        return new String(pattern);
+    }
+    
+    /**
+     * Gets the dictionary words with a letter-repetition pattern
+     * @param pattern The pattern, as returned by wordPattern
+     * @return The matching lowercase words in sorted order, empty if there are none
+     */
+    public static List<String> getWordsWithPattern(String pattern) {
+        List<String> words = WORDS_BY_PATTERN.get(pattern);
+        return words == null ? Collections.emptyList() : Collections.unmodifiableList(words);
     }
     
     @Override
-    public String getSummary() {
-        return lastSummary;
+    public String getName() {
+        return "Dictionary Matching";
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+/**
+ * Pre-encoded form of a ciphertext
+ * Every character is stored once as its alphabet index, with spaces and characters
+ * outside the alphabet marked as pass-through, so the search loops can decrypt the
+ * same file under many keys without repeating the alphabet lookup
+ */
+public class EncodedText {
+    
+    // Marker for positions that pass through every cipher unchanged
+    public static final byte PASS_THROUGH = -1;
+    
+    private final String text;
+    private final char[] chars;
+    private final byte[] indices;
+    private final int alphabetCount;
+    private volatile WordLayout wordLayout;  // Built on first request
+    
+    /**
+     * Encodes a ciphertext against the cipher alphabet
+     * @param text The text to encode
+     */
+    public EncodedText(String text) {
+        this.text = text;
+        this.chars = text.toCharArray();
+        this.indices = new byte[chars.length];
+        
+        int count = 0;
+        for (int i = 0; i < chars.length; i++) {
+            // Spaces are never in the alphabet, so they are marked as pass-through here
+            int index = CipherUtils.getAlphabetIndex(chars[i]);
+            indices[i] = (byte) index;
+            if (index != -1) {
+                count++;
+            }
+        }
+        this.alphabetCount = count;
+    }
+    
+    /**
+     * Gets the alphabet indices of the text
+     * The returned array is shared and must not be modified
+     * @return The alphabet index of each character, or PASS_THROUGH
+     */
+    public byte[] getIndices() {
+        return indices;
+    }
+    
+    /**
+     * Checks whether the character at a position passes through unchanged
+     * @param position The position in the text
+     * @return True if the character is a space or outside the alphabet
+     */
+    public boolean isPassThrough(int position) {
+        return indices[position] == PASS_THROUGH;
+    }
+    
+    /**
+     * Gets the original character at a position
+     * @param position The position in the text
+     * @return The character at that position
+     */
+    public char charAt(int position) {
+        return chars[position];
+    }
+    
+    /**
+     * Gets the length of the text
+     * @return The number of characters
+     */
+    public int length() {
+        return chars.length;
+    }
+    
+    /**
+     * Gets the number of characters that belong to the alphabet
+     * @return The number of non pass-through characters
+     */
+    public int getAlphabetCount() {
+        return alphabetCount;
+    }
+    
+    /**
+     * Gets the word segments every decryption of this text shares
+     * The layout is built once and then reused for every key
+     * @return The word layout
+     */
+    public WordLayout getWordLayout() {
+        WordLayout layout = wordLayout;
+        if (layout == null) {
+            // A race only builds the same immutable layout twice
+            layout = new WordLayout(this);
+            wordLayout = layout;
+        }
+        return layout;
+    }
+    
+    /**
+     * Gets the original text
+     * @return The text this encoding was built from
+     */
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * Allocates an output buffer large enough for decryptInto
+     * @return A new buffer with one entry per character
+     */
+    public byte[] newBuffer() {
+        return new byte[chars.length];
+    }
+    
+    /**
+     * Rebuilds a string from a buffer filled by Cipher.decryptInto
+     * Pass-through positions take the original character from this text
+     * @param decoded The decrypted alphabet indices
+     * @return The decrypted text
+     */
+    public String decode(byte[] decoded) {
+        char[] result = new char[chars.length];
+        for (int i = 0; i < chars.length; i++) {
+            byte index = decoded[i];
+            result[i] = index == PASS_THROUGH ? chars[i] : CipherUtils.getAlphabetChar(index);
+        }
+        return new String(result);
+    }
+}
\ No newline at end of file
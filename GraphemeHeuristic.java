@@ -1,5 +1,7 @@
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -8,7 +10,7 @@ import java.util.Set;
  * to determine if text matches English writing patterns
  * Graphemes are basic units of written language (single letters and common combinations)
  */
-public class GraphemeHeuristic implements Heuristic {
+public class GraphemeHeuristic extends AbstractHeuristic {
     
     // Common English graphemes from linguistic analysis
     private static final Set<String> COMMON_GRAPHEMES = new HashSet<>();
@@ -90,55 +92,191 @@ public class GraphemeHeuristic implements Heuristic {
         GRAPHEME_FREQUENCIES.put("ther", 0.3);
     }
     
-    private String lastSummary = "";
+    // Highest possible score: every common grapheme found, each with its weight
+    private static final double MAX_SCORE;
+    static {
+        double total = 0.0;
+        for (String grapheme : COMMON_GRAPHEMES) {
+            total += GRAPHEME_FREQUENCIES.getOrDefault(grapheme, 1.0);
+        }
+        MAX_SCORE = Math.min(1.0, total / (COMMON_GRAPHEMES.size() * 5.0));
+    }
+    
+    // Longest grapheme the scan counts; longer ones only enter the normalization
+    private static final int MAX_SCANNED_LENGTH = 3;
+    
+    // Weight of each common grapheme, in the iteration order of COMMON_GRAPHEMES so scores
+    // are summed in the same order; grapheme ids index this array
+    private static final double[] WEIGHTS = new double[COMMON_GRAPHEMES.size()];
+    
+    // Aho-Corasick automaton over the scanned graphemes, as a complete transition table:
+    // NEXT[state * 26 + letter] is the state after reading a letter, and ENDING[length][state]
+    // the id of the grapheme of that length ending at the last letter read, or -1
+    private static final int[] NEXT;
+    private static final int[][] ENDING = new int[MAX_SCANNED_LENGTH + 1][];
+    private static final int ROOT = 0;
+    static {
+        // Trie of the scanned graphemes; each state remembers its depth and grapheme id
+        List<int[]> children = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        children.add(new int[26]);
+        depths.add(0);
+        ids.add(-1);
+        int id = 0;
+        for (String grapheme : COMMON_GRAPHEMES) {
+            WEIGHTS[id] = GRAPHEME_FREQUENCIES.getOrDefault(grapheme, 1.0);
+            if (grapheme.length() <= MAX_SCANNED_LENGTH) {
+                int state = ROOT;
+                for (int i = 0; i < grapheme.length(); i++) {
+                    int letter = grapheme.charAt(i) - 'a';
+                    if (children.get(state)[letter] == 0) {
+                        children.get(state)[letter] = children.size();
+                        children.add(new int[26]);
+                        depths.add(depths.get(state) + 1);
+                        ids.add(-1);
+                    }
+                    state = children.get(state)[letter];
+                }
+                ids.set(state, id);
+            }
+            id++;
+        }
+        
+        // Breadth-first, fill in the failure links and the missing transitions
+        int states = children.size();
+        NEXT = new int[states * 26];
+        int[] fail = new int[states];
+        for (int length = 1; length <= MAX_SCANNED_LENGTH; length++) {
+            ENDING[length] = new int[states];
+            java.util.Arrays.fill(ENDING[length], -1);
+        }
+        java.util.ArrayDeque<Integer> queue = new java.util.ArrayDeque<>();
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            
+            // The graphemes ending here are this state's own and those of its longest proper suffix
+            for (int length = 1; length <= MAX_SCANNED_LENGTH; length++) {
+                ENDING[length][state] = state == ROOT ? -1 : ENDING[length][fail[state]];
+            }
+            if (ids.get(state) != -1) {
+                ENDING[depths.get(state)][state] = ids.get(state);
+            }
+            
+            for (int letter = 0; letter < 26; letter++) {
+                int child = children.get(state)[letter];
+                if (child != 0) {
+                    fail[child] = state == ROOT ? ROOT : NEXT[fail[state] * 26 + letter];
+                    NEXT[state * 26 + letter] = child;
+                    queue.add(child);
+                } else {
+                    NEXT[state * 26 + letter] = state == ROOT ? ROOT : NEXT[fail[state] * 26 + letter];
+                }
+            }
+        }
+    }
+    
+    // Per-thread marks of the graphemes found, so scoring does not allocate
+    private static final ThreadLocal<boolean[]> FOUND = ThreadLocal.withInitial(() -> new boolean[WEIGHTS.length]);
+    
+    // Shared instance; scoring keeps no state, so every thread can use it
+    public static final GraphemeHeuristic INSTANCE = new GraphemeHeuristic();
     
     @Override
-    public double analyze(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            lastSummary = "No text to analyze";
+    public double score(AnalyzedText text) {
+        if (text.isBlank()) {
             return 0.0;
         }
+        return scan(text, null);
+    }
+    
+    @Override
+    public HeuristicScore evaluate(AnalyzedText text) {
+        if (text.isBlank()) {
+            return HeuristicScore.of(0.0, "No text to analyze");
+        }
         
-        String lowerText = text.toLowerCase();
-        Map<String, Integer> graphemeCount = new HashMap<>();
+        int[] counts = new int[2];
+        double score = scan(text, counts);
+        if (counts[1] == 0) {
+            return HeuristicScore.of(0.0, "No valid graphemes found");
+        }
+        return new HeuristicScore(score, () -> String.format("Found %d common graphemes out of %d total graphemes", 
+                                                             counts[0], counts[1]));
+    }
+    
+    /**
+     * Counts the common graphemes of a text and scores them
+     * @param text The analyzed text, not blank
+     * @param counts Receives the number of distinct common graphemes found and the
+     *               total number of graphemes counted, or null
+     * @return The score
+     */
+    private static double scan(AnalyzedText text, int[] counts) {
+        byte[] letters = text.getLetters();
+        int length = text.length();
+        boolean[] found = FOUND.get();
+        java.util.Arrays.fill(found, false);
         int totalGraphemes = 0;
         
-        // Extract and count graphemes
-        // Start with longer graphemes first to avoid overcounting
-        for (int length = 3; length >= 1; length--) {
-            for (int i = 0; i <= lowerText.length() - length; i++) {
-                String candidate = lowerText.substring(i, i + length);
-                
-                // Only count if it's a valid grapheme and consists of letters
-                if (COMMON_GRAPHEMES.contains(candidate) && candidate.matches("[a-z]+")) {
-                    // Check if this position hasn't been counted by a longer grapheme
-                    boolean alreadyCounted = false;
-                    for (int len = length + 1; len <= 3; len++) {
-                        int start = Math.max(0, i - len + 1);
-                        int end = Math.min(lowerText.length(), i + len);
-                        for (int j = start; j < end - len + 1; j++) {
-                            if (j <= i && i < j + len) {
-                                String longer = lowerText.substring(j, j + len);
-                                if (COMMON_GRAPHEMES.contains(longer) && longer.matches("[a-z]+")) {
-                                    alreadyCounted = true;
-                                    break;
-                                }
-                            }
-                        }
-                        if (alreadyCounted) break;
-                    }
-                    
-                    if (!alreadyCounted) {
-                        graphemeCount.put(candidate, graphemeCount.getOrDefault(candidate, 0) + 1);
-                        totalGraphemes++;
-                        i += length - 1; // Skip ahead to avoid overlapping
-                    }
-                }
+        // One pass of the automaton reports the graphemes ending at each position. Longer
+        // graphemes take precedence: a grapheme is only counted if no longer one covers its
+        // first letter, and counted graphemes of one length do not overlap. Whether a window
+        // starting at s is covered is known once the trigraph starting there has ended, so
+        // each start is decided two letters later. Registers hold the ids (-1 for none) of
+        // the trigraphs starting at s, s-1 and s-2, the bigraphs starting at s and s-1, and
+        // the letter at s, plus those read since
+        int state = ROOT;
+        int trigraph = -1, trigraphBefore = -1, trigraphTwoBefore = -1;
+        int bigraphNext = -1, bigraph = -1, bigraphBefore = -1;
+        int letterNextNext = -1, letterNext = -1, letter = -1;
+        int trigraphsFreeFrom = 0;
+        int bigraphsFreeFrom = 0;
+        
+        for (int end = 0; end < length + 2; end++) {
+            // Read one more position; a non-letter, or the end of the text, restarts the automaton
+            if (end < length && letters[end] >= 0) {
+                state = NEXT[state * 26 + letters[end]];
+            } else {
+                state = ROOT;
+            }
+            trigraphTwoBefore = trigraphBefore;
+            trigraphBefore = trigraph;
+            trigraph = ENDING[3][state];
+            bigraphBefore = bigraph;
+            bigraph = bigraphNext;
+            bigraphNext = ENDING[2][state];
+            letter = letterNext;
+            letterNext = letterNextNext;
+            letterNextNext = ENDING[1][state];
+            
+            // Decide the window starting two positions back
+            int start = end - 2;
+            if (start < 0) {
+                continue;
+            }
+            boolean coveredByTrigraph = trigraph != -1 || trigraphBefore != -1 || trigraphTwoBefore != -1;
+            if (trigraph != -1 && start >= trigraphsFreeFrom) {
+                found[trigraph] = true;
+                totalGraphemes++;
+                trigraphsFreeFrom = start + 3;
+            }
+            if (bigraph != -1 && !coveredByTrigraph && start >= bigraphsFreeFrom) {
+                found[bigraph] = true;
+                totalGraphemes++;
+                bigraphsFreeFrom = start + 2;
+            }
+            if (letter != -1 && !coveredByTrigraph && bigraph == -1 && bigraphBefore == -1) {
+                found[letter] = true;
+                totalGraphemes++;
             }
         }
         
+        if (counts != null) {
+            counts[1] = totalGraphemes;
+        }
         if (totalGraphemes == 0) {
-            lastSummary = "No valid graphemes found";
             return 0.0;
         }
         
@@ -146,31 +284,36 @@ public class GraphemeHeuristic implements Heuristic {
         double score = 0.0;
         int commonGraphemesFound = 0;
         
-        for (String grapheme : COMMON_GRAPHEMES) {
-            if (graphemeCount.containsKey(grapheme)) {
+        for (int id = 0; id < WEIGHTS.length; id++) {
+            if (found[id]) {
                 commonGraphemesFound++;
                 // Weight by expected frequency if available
-                double weight = GRAPHEME_FREQUENCIES.getOrDefault(grapheme, 1.0);
-                score += weight;
+                score += WEIGHTS[id];
             }
         }
         
         // Normalize score
         score = Math.min(1.0, score / (COMMON_GRAPHEMES.size() * 5.0));
         
-        lastSummary = String.format("Found %d common graphemes out of %d total graphemes", 
-                                   commonGraphemesFound, totalGraphemes);
-        
+        if (counts != null) {
+            counts[0] = commonGraphemesFound;
+        }
         return score;
     }
     
+    /**
+     * Gets an upper bound on the score of any text
+     * Scores are normalized by five times the number of common graphemes, so even a text
+     * containing all of them stays well below 1.0
+     * @return The score of a text containing every common grapheme
+     */
     @Override
-    public String getName() {
-        return "Grapheme Analysis";
+    public double getMaxScore() {
+        return MAX_SCORE;
     }
     
     @Override
-    public String getSummary() {
-        return lastSummary;
+    public String getName() {
+        return "Grapheme Analysis";
     }
 }
\ No newline at end of file
@@ -1,9 +1,75 @@
 /**
  * Interface for text analysis heuristics used to evaluate decrypted text quality
  * Higher scores indicate better matches to expected patterns
+ * The score, scoreBounded and evaluate methods keep no state, so one instance can be
+ * shared by every thread; analyze and getSummary remain as an adapter for single callers
+ * Implementations read an AnalyzedText, so a caller running several heuristics on one
+ * text prepares it once; the String methods analyze the text for a single heuristic
  */
 public interface Heuristic {
     
+    /**
+     * Scores analyzed text without keeping any state
+     * @param text The analyzed text
+     * @return A score between 0.0 and 1.0, where 1.0 indicates a perfect match
+     */
+    double score(AnalyzedText text);
+    
+    /**
+     * Scores text without keeping any state
+     * @param text The text to analyze
+     * @return A score between 0.0 and 1.0, where 1.0 indicates a perfect match
+     */
+    default double score(String text) {
+        return score(new AnalyzedText(text));
+    }
+    
+    /**
+     * Scores analyzed text, stopping early once the score can no longer reach a threshold
+     * @param text The analyzed text
+     * @param threshold The lowest score the caller has a use for
+     * @return The exact score if it is at least the threshold, otherwise an upper bound
+     *         on the score, which may be below the threshold
+     */
+    default double scoreBounded(AnalyzedText text, double threshold) {
+        return score(text);
+    }
+    
+    /**
+     * Scores text, stopping early once the score can no longer reach a threshold
+     * @param text The text to analyze
+     * @param threshold The lowest score the caller has a use for
+     * @return The exact score if it is at least the threshold, otherwise an upper bound
+     *         on the score, which may be below the threshold
+     */
+    default double scoreBounded(String text, double threshold) {
+        return scoreBounded(new AnalyzedText(text), threshold);
+    }
+    
+    /**
+     * Scores analyzed text and describes the result
+     * @param text The analyzed text
+     * @return The score, with an explanation rendered on first request
+     */
+    HeuristicScore evaluate(AnalyzedText text);
+    
+    /**
+     * Scores text and describes the result
+     * @param text The text to analyze
+     * @return The score, with an explanation rendered on first request
+     */
+    default HeuristicScore evaluate(String text) {
+        return evaluate(new AnalyzedText(text));
+    }
+    
+    /**
+     * Gets an upper bound on the score of any text
+     * @return The highest score this heuristic can give
+     */
+    default double getMaxScore() {
+        return 1.0;
+    }
+    
     /**
      * Analyzes text and returns a score indicating how well it matches expected patterns
      * @param text The text to analyze
@@ -0,0 +1,61 @@
+import java.util.function.Supplier;
+
+/**
+ * Immutable result of a heuristic evaluation
+ * Holds the score and renders the human-readable explanation only when it is first
+ * requested, so evaluating many texts costs no string formatting
+ */
+public final class HeuristicScore {
+    
+    private final double value;
+    private final Supplier<String> explanation;
+    private volatile String rendered;
+    
+    /**
+     * Creates a score whose explanation is rendered on demand
+     * @param value The score between 0.0 and 1.0
+     * @param explanation Renders the explanation; called at most once per thread that asks
+     */
+    public HeuristicScore(double value, Supplier<String> explanation) {
+        this.value = value;
+        this.explanation = explanation;
+    }
+    
+    /**
+     * Creates a score with a fixed explanation
+     * @param value The score between 0.0 and 1.0
+     * @param explanation The explanation
+     * @return The score
+     */
+    public static HeuristicScore of(double value, String explanation) {
+        HeuristicScore score = new HeuristicScore(value, () -> explanation);
+        score.rendered = explanation;
+        return score;
+    }
+    
+    /**
+     * Gets the score
+     * @return A score between 0.0 and 1.0, where 1.0 indicates a perfect match
+     */
+    public double getValue() {
+        return value;
+    }
+    
+    /**
+     * Gets the explanation of the score, rendering it on first request
+     * @return A human-readable summary of the analysis results
+     */
+    public String getExplanation() {
+        String result = rendered;
+        if (result == null) {
+            result = explanation.get();
+            rendered = result;
+        }
+        return result;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%.3f (%s)", value, getExplanation());
+    }
+}
\ No newline at end of file
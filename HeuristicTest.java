@@ -49,6 +49,9 @@ public class HeuristicTest {
         
         // Test with INPUT files
         testInputFiles(heuristics);
+        
+        // Test the compiled dictionary format
+        testCompiledDictionary();
     }
     
     private static void testInputFiles(Heuristic[] heuristics) {
@@ -88,4 +91,77 @@ public class HeuristicTest {
             System.out.println("Error accessing INPUT directory: " + e.getMessage());
         }
     }
+    
+    private static void testCompiledDictionary() {
+        System.out.println("Testing compiled dictionary:");
+        System.out.println("===========================");
+        
+        // Shared prefixes (car, care, cared) and suffixes (-ared, -aring) exercise the subtree sharing
+        java.util.List<String> words = java.util.Arrays.asList(
+            "car", "care", "cared", "caring", "bare", "bared", "baring", "scare", "scared",
+            "star", "stare", "stared", "staring", "start", "starting", "a", "zebra");
+        String[] nonWords = {"ca", "cars", "scar", "bar", "stares", "startin", "b", "", "zebras", "Care"};
+        
+        try {
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("dictionary", ".dict");
+            try {
+                int size = DictionaryCompiler.compile(words, file);
+                MappedDictionary dictionary = MappedDictionary.open(file);
+                System.out.println("Compiled " + words.size() + " words into " + size + " bytes");
+                
+                // Every source word is found, also as a slice of a longer array
+                boolean allFound = dictionary.getWordCount() == words.size();
+                for (String word : words) {
+                    char[] padded = ("x" + word + "y").toCharArray();
+                    allFound &= dictionary.contains(word) && dictionary.contains(padded, 1, word.length());
+                }
+                System.out.println("All source words found: " + allFound);
+                
+                boolean noneFound = true;
+                for (String nonWord : nonWords) {
+                    noneFound &= !dictionary.contains(nonWord);
+                }
+                System.out.println("Other strings rejected: " + noneFound);
+                
+                // Truncated files are rejected when opened or answer lookups without throwing
+                byte[] bytes = java.nio.file.Files.readAllBytes(file);
+                boolean truncatedHandled = true;
+                for (int length = 0; length < bytes.length; length++) {
+                    java.nio.file.Files.write(file, java.util.Arrays.copyOf(bytes, length));
+                    try {
+                        MappedDictionary truncated = MappedDictionary.open(file);
+                        for (String word : words) {
+                            truncated.contains(word);
+                        }
+                    } catch (java.io.IOException e) {
+                        // Rejected when opened
+                    } catch (RuntimeException e) {
+                        truncatedHandled = false;
+                    }
+                }
+                System.out.println("Truncated files handled: " + truncatedHandled);
+                
+                // Child offsets pointing outside the file are treated as missing children
+                java.nio.ByteBuffer corrupt = java.nio.ByteBuffer.wrap(bytes.clone());
+                int root = corrupt.getInt(20);
+                int children = corrupt.get(root) & (DictionaryCompiler.TERMINAL - 1);
+                for (int edge = root + 1; edge < root + 1 + 5 * children; edge += 5) {
+                    corrupt.putInt(edge + 1, Integer.MAX_VALUE);
+                }
+                java.nio.file.Files.write(file, corrupt.array());
+                boolean corruptHandled;
+                try {
+                    corruptHandled = !MappedDictionary.open(file).contains("care");
+                } catch (RuntimeException e) {
+                    corruptHandled = false;
+                }
+                System.out.println("Corrupt offsets handled: " + corruptHandled);
+            } finally {
+                java.nio.file.Files.deleteIfExists(file);
+            }
+        } catch (java.io.IOException e) {
+            System.out.println("Error testing compiled dictionary: " + e.getMessage());
+        }
+        System.out.println();
+    }
 }
\ No newline at end of file
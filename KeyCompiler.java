@@ -0,0 +1,99 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles cipher keys into decryption lookup tables
+ * All modular arithmetic happens here, once per key, and the resulting tables
+ * are cached and shared across files and threads so the search loops only do
+ * table lookups
+ */
+public class KeyCompiler {
+    
+    private static final int SIZE = CipherUtils.getAlphabetSize();
+    
+    // Multiplicative inverse of each residue modulo the alphabet size, -1 if none exists
+    private static final int[] INVERSES = new int[SIZE];
+    static {
+        for (int a = 0; a < SIZE; a++) {
+            INVERSES[a] = -1;
+            for (int x = 1; x < SIZE; x++) {
+                if ((a * x) % SIZE == 1) {
+                    INVERSES[a] = x;
+                    break;
+                }
+            }
+        }
+    }
+    
+    // One table per Caesar shift, built up front since there are only alphabet-size of them
+    private static final SubstitutionTable[] CAESAR_TABLES = new SubstitutionTable[SIZE];
+    static {
+        for (int shift = 0; shift < SIZE; shift++) {
+            byte[] indexMap = new byte[SIZE];
+            for (int index = 0; index < SIZE; index++) {
+                indexMap[index] = (byte) ((index - shift + SIZE) % SIZE);
+            }
+            CAESAR_TABLES[shift] = new SubstitutionTable(indexMap);
+        }
+    }
+    
+    // Affine tables are built on first use, keyed by a * SIZE + b
+    private static final Map<Integer, SubstitutionTable> AFFINE_TABLES = new ConcurrentHashMap<>();
+    
+    /**
+     * Gets the multiplicative inverse of a modulo the alphabet size
+     * @param a The number to find the inverse for
+     * @return The multiplicative inverse, or -1 if it doesn't exist
+     */
+    public static int modularInverse(int a) {
+        int residue = a % SIZE;
+        return residue < 0 ? -1 : INVERSES[residue];
+    }
+    
+    /**
+     * Gets the decryption table for a Caesar shift
+     * @param shift The shift value
+     * @return The shared decryption table
+     */
+    public static SubstitutionTable caesar(int shift) {
+        return CAESAR_TABLES[Math.floorMod(shift, SIZE)];
+    }
+    
+    /**
+     * Gets the decryption table for an Affine key pair
+     * @param a The multiplicative key (must be coprime with alphabet size)
+     * @param b The additive key
+     * @return The shared decryption table
+     */
+    public static SubstitutionTable affine(int a, int b) {
+        int aInverse = modularInverse(a);
+        if (aInverse == -1) {
+            throw new IllegalArgumentException("The key 'a' must be coprime with alphabet size " + SIZE);
+        }
+        int normalizedA = a % SIZE;
+        int normalizedB = Math.floorMod(b, SIZE);
+        
+        return AFFINE_TABLES.computeIfAbsent(normalizedA * SIZE + normalizedB, k -> {
+            byte[] indexMap = new byte[SIZE];
+            for (int index = 0; index < SIZE; index++) {
+                indexMap[index] = (byte) ((aInverse * (index - normalizedB + SIZE)) % SIZE);
+            }
+            return new SubstitutionTable(indexMap);
+        });
+    }
+    
+    /**
+     * Gets the decryption tables for a Vigenère key, one per key character
+     * @param key The key string
+     * @return The shared Caesar table for each key character, or null where the
+     *         key character is not in the alphabet
+     */
+    public static SubstitutionTable[] vigenere(String key) {
+        SubstitutionTable[] tables = new SubstitutionTable[key.length()];
+        for (int i = 0; i < key.length(); i++) {
+            int shift = CipherUtils.getAlphabetIndex(key.charAt(i));
+            tables[i] = shift == -1 ? null : CAESAR_TABLES[shift];
+        }
+        return tables;
+    }
+}
\ No newline at end of file
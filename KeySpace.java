@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Canonical key enumeration across the Caesar, Vigenère and Affine ciphers
+ * Many keys decrypt identically: a periodic Vigenère key such as "abab" is the key "ab",
+ * a one-character Vigenère key is a Caesar shift, and Affine with a=1 is a Caesar shift too.
+ * Each class of equivalent keys has one canonical member, which is the only one the
+ * searches decrypt and score; the other members are listed on its candidate instead
+ *
+ * The canonical members are:
+ * - Caesar shift s, covering the Vigenère key of the single character at index s and Affine (1, s)
+ * - Affine (1, 0), the identity, covering the Vigenère key of the single character at index 0
+ * - Vigenère keys of two or more characters that do not repeat a shorter key
+ */
+public class KeySpace {
+    
+    // Longest Vigenère key the enumerating searches try; repetitions are listed up to this length
+    public static final int MAX_VIGENERE_KEY_LENGTH = 4;
+    
+    /**
+     * Checks whether a Vigenère key is canonical
+     * @param key The key string
+     * @return True if the key has at least two characters and is not a repeated shorter key
+     */
+    public static boolean isCanonicalVigenere(String key) {
+        return key.length() > 1 && VigenereSolver.shortestPeriod(key).length() == key.length();
+    }
+    
+    /**
+     * Checks whether an enumerated Vigenère key is canonical without building the key string
+     * Key indices are mixed-radix numbers over the key choices, first character most significant
+     * @param keyIndex The key index
+     * @param keyLength The key length
+     * @param radix The number of choices per key character
+     * @return True if the key has at least two characters and is not a repeated shorter key
+     */
+    public static boolean isCanonicalVigenere(long keyIndex, int keyLength, int radix) {
+        if (keyLength < 2) {
+            return false;
+        }
+        
+        long unitSize = 1;
+        for (int period = 1; period < keyLength; period++) {
+            unitSize *= radix;
+            if (keyLength % period != 0) {
+                continue;
+            }
+            
+            // Repeat the last period characters over the whole key and compare
+            long unit = keyIndex % unitSize;
+            long repeated = 0;
+            for (int r = 0; r < keyLength / period; r++) {
+                repeated = repeated * unitSize + unit;
+            }
+            if (repeated == keyIndex) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Checks whether an Affine key is canonical
+     * @param a The multiplicative key
+     * @param b The additive key
+     * @return False for a=1 with a non-zero b, which is the Caesar shift b
+     */
+    public static boolean isCanonicalAffine(int a, int b) {
+        return a != 1 || b == 0;
+    }
+    
+    /**
+     * Lists the keys of the other ciphers that decrypt the same as a Caesar shift
+     * @param shift The Caesar shift, 1 to alphabet size - 1
+     * @return The equivalent keys, with their cipher names
+     */
+    public static List<String> caesarEquivalents(int shift) {
+        List<String> equivalents = repeatedKeys(String.valueOf(CipherUtils.getAlphabetChar(shift)));
+        equivalents.add("Affine (1, " + shift + ")");
+        return equivalents;
+    }
+    
+    /**
+     * Lists the keys of the other ciphers that decrypt the same as an Affine key
+     * @param a The multiplicative key
+     * @param b The additive key
+     * @return The equivalent keys, with their cipher names
+     */
+    public static List<String> affineEquivalents(int a, int b) {
+        if (a == 1 && b == 0) {
+            return repeatedKeys(String.valueOf(CipherUtils.getAlphabetChar(0)));
+        }
+        return Collections.emptyList();
+    }
+    
+    /**
+     * Lists the repetitions of a canonical Vigenère key that fit the searched key lengths
+     * @param key The canonical key
+     * @return The equivalent keys, with their cipher names
+     */
+    public static List<String> vigenereEquivalents(String key) {
+        if (key.length() * 2 > MAX_VIGENERE_KEY_LENGTH) {
+            return Collections.emptyList();
+        }
+        List<String> equivalents = repeatedKeys(key);
+        equivalents.remove(0);
+        return equivalents;
+    }
+    
+    /**
+     * Lists a key and its repetitions up to the longest searched Vigenère key
+     */
+    private static List<String> repeatedKeys(String unit) {
+        List<String> keys = new ArrayList<>();
+        StringBuilder key = new StringBuilder(unit);
+        while (key.length() <= MAX_VIGENERE_KEY_LENGTH) {
+            keys.add("Vigenère key=" + key);
+            key.append(unit);
+        }
+        return keys;
+    }
+}
\ No newline at end of file
@@ -5,7 +5,7 @@ import java.util.Map;
  * Heuristic that analyzes letter frequency to determine if text matches English patterns
  * Uses chi-squared test to compare observed frequencies with expected English frequencies
  */
-public class LetterFrequencyHeuristic implements Heuristic {
+public class LetterFrequencyHeuristic extends AbstractHeuristic {
     
     // Expected English letter frequencies (case-insensitive)
     private static final Map<Character, Double> ENGLISH_FREQUENCIES = new HashMap<>();
@@ -39,66 +39,114 @@ public class LetterFrequencyHeuristic implements Heuristic {
         ENGLISH_FREQUENCIES.put('z', 0.07);
     }
     
-    private String lastSummary = "";
+    // The same frequencies indexed by letter ('a' = 0) for the scoring loop
+    private static final double[] EXPECTED_PERCENTS = new double[26];
+    static {
+        for (char letter = 'a'; letter <= 'z'; letter++) {
+            EXPECTED_PERCENTS[letter - 'a'] = ENGLISH_FREQUENCIES.get(letter);
+        }
+    }
+    
+    // Shared instance; scoring keeps no state, so every thread can use it
+    public static final LetterFrequencyHeuristic INSTANCE = new LetterFrequencyHeuristic();
     
     @Override
-    public double analyze(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            lastSummary = "No text to analyze";
+    public double score(AnalyzedText text) {
+        return scoreBounded(text, Double.NEGATIVE_INFINITY);
+    }
+    
+    /**
+     * Scores text, stopping the chi-squared sum once the score falls below the threshold
+     * Every term of the sum is non-negative, so a partial sum already bounds the score
+     */
+    @Override
+    public double scoreBounded(AnalyzedText text, double threshold) {
+        if (text.isBlank()) {
             return 0.0;
         }
         
-        // Count letter frequencies (case-insensitive)
-        Map<Character, Integer> letterCounts = new HashMap<>();
-        int totalLetters = 0;
+        int[] letterCounts = text.getLetterCounts();
+        int totalLetters = text.getTotalLetters();
+        if (totalLetters == 0) {
+            return 0.0;
+        }
         
-        for (char c : text.toCharArray()) {
-            char lowerC = Character.toLowerCase(c);
-            if (Character.isLetter(lowerC) && lowerC >= 'a' && lowerC <= 'z') {
-                letterCounts.put(lowerC, letterCounts.getOrDefault(lowerC, 0) + 1);
-                totalLetters++;
+        // Same sum as chiSquared(), letter by letter
+        double chiSquared = 0.0;
+        for (int letter = 0; letter < 26; letter++) {
+            int observed = letterCounts[letter];
+            double expected = (EXPECTED_PERCENTS[letter] / 100.0) * totalLetters;
+            chiSquared += Math.pow(observed - expected, 2) / expected;
+            
+            double bound = scoreChiSquared(chiSquared);
+            if (bound < threshold) {
+                return bound;
             }
         }
+        return scoreChiSquared(chiSquared);
+    }
+    
+    @Override
+    public HeuristicScore evaluate(AnalyzedText text) {
+        if (text.isBlank()) {
+            return HeuristicScore.of(0.0, "No text to analyze");
+        }
         
+        int[] letterCounts = text.getLetterCounts();
+        int totalLetters = text.getTotalLetters();
         if (totalLetters == 0) {
-            lastSummary = "No letters found in text";
-            return 0.0;
+            return HeuristicScore.of(0.0, "No letters found in text");
         }
         
-        // Calculate chi-squared statistic
+        double chiSquared = chiSquared(letterCounts, totalLetters);
+        return new HeuristicScore(scoreChiSquared(chiSquared),
+            () -> String.format("Analyzed %d letters, chi-squared: %.2f", totalLetters, chiSquared));
+    }
+    
+    /**
+     * Gets the letter a character counts as (case-insensitive)
+     * @param c The character to classify
+     * @return The letter index ('a' = 0), or -1 if the character is not counted
+     */
+    public static int letterIndex(char c) {
+        char lowerC = Character.toLowerCase(c);
+        if (Character.isLetter(lowerC) && lowerC >= 'a' && lowerC <= 'z') {
+            return lowerC - 'a';
+        }
+        return -1;
+    }
+    
+    /**
+     * Calculates the chi-squared statistic of letter counts against English
+     * @param letterCounts The count of each letter ('a' = 0)
+     * @param totalLetters The sum of the counts, must be positive
+     * @return The chi-squared statistic
+     */
+    public static double chiSquared(int[] letterCounts, int totalLetters) {
         double chiSquared = 0.0;
-        int lettersAnalyzed = 0;
         
-        for (char letter = 'a'; letter <= 'z'; letter++) {
-            int observed = letterCounts.getOrDefault(letter, 0);
-            double expectedPercent = ENGLISH_FREQUENCIES.get(letter);
-            double expected = (expectedPercent / 100.0) * totalLetters;
-            
-            if (expected > 0) {
-                chiSquared += Math.pow(observed - expected, 2) / expected;
-                lettersAnalyzed++;
-            }
+        for (int letter = 0; letter < 26; letter++) {
+            int observed = letterCounts[letter];
+            double expected = (EXPECTED_PERCENTS[letter] / 100.0) * totalLetters;
+            chiSquared += Math.pow(observed - expected, 2) / expected;
         }
         
-        // Convert chi-squared to a score between 0 and 1
-        // Lower chi-squared means better match to English
+        return chiSquared;
+    }
+    
+    /**
+     * Converts a chi-squared statistic to a score between 0 and 1
+     * Lower chi-squared means better match to English
+     * @param chiSquared The chi-squared statistic over all 26 letters
+     * @return The normalized score
+     */
+    public static double scoreChiSquared(double chiSquared) {
         // Use a scaling factor to normalize the score
-        double score = Math.max(0.0, 1.0 - (chiSquared / (lettersAnalyzed * 10.0)));
-        
-        // Create summary
-        lastSummary = String.format("Analyzed %d letters, chi-squared: %.2f", 
-                                   totalLetters, chiSquared);
-        
-        return score;
+        return Math.max(0.0, 1.0 - (chiSquared / (26 * 10.0)));
     }
     
     @Override
     public String getName() {
         return "Letter Frequency Analysis";
     }
-    
-    @Override
-    public String getSummary() {
-        return lastSummary;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+/**
+ * Ciphertext histogram used to score monoalphabetic keys without decrypting
+ * A monoalphabetic key only permutes the alphabet, so the plaintext histogram of any
+ * key is the ciphertext histogram with its entries moved through the decryption table.
+ * Built once per file, it gives the exact LetterFrequencyHeuristic score of a key
+ * in time independent of the text length
+ */
+public class LetterHistogram {
+    
+    // Letter each alphabet index counts as ('a' = 0), or -1 for digits and punctuation
+    private static final int[] ALPHABET_LETTERS = new int[CipherUtils.getAlphabetSize()];
+    static {
+        for (int i = 0; i < ALPHABET_LETTERS.length; i++) {
+            ALPHABET_LETTERS[i] = LetterFrequencyHeuristic.letterIndex(CipherUtils.getAlphabetChar(i));
+        }
+    }
+    
+    private final int[] alphabetCounts;     // Count of each alphabet index in the ciphertext
+    private final int[] passThroughLetters; // Letters outside the alphabet, which no key changes
+    private final int passThroughTotal;
+    
+    /**
+     * Builds the histogram of an encoded ciphertext
+     * @param encoded The encoded ciphertext
+     */
+    public LetterHistogram(EncodedText encoded) {
+        this.alphabetCounts = new int[CipherUtils.getAlphabetSize()];
+        this.passThroughLetters = new int[26];
+        
+        byte[] indices = encoded.getIndices();
+        int total = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] != EncodedText.PASS_THROUGH) {
+                alphabetCounts[indices[i]]++;
+            } else {
+                // Count pass-through characters the same way the heuristic does
+                int letter = LetterFrequencyHeuristic.letterIndex(encoded.charAt(i));
+                if (letter != -1) {
+                    passThroughLetters[letter]++;
+                    total++;
+                }
+            }
+        }
+        this.passThroughTotal = total;
+    }
+    
+    /**
+     * Gets the count of each alphabet index in the ciphertext
+     * The returned array is shared and must not be modified
+     * @return The ciphertext histogram over alphabet indices
+     */
+    public int[] getAlphabetCounts() {
+        return alphabetCounts;
+    }
+    
+    /**
+     * Scores the plaintext a decryption table would produce
+     * Gives the same value as LetterFrequencyHeuristic.analyze on the decrypted text
+     * @param table The decryption table of the key
+     * @return The letter frequency score between 0.0 and 1.0
+     */
+    public double score(SubstitutionTable table) {
+        return score(table.getIndexMap(), new int[26]);
+    }
+    
+    /**
+     * Scores the plaintext a decryption index map would produce, using a caller-owned
+     * scratch array so the per-key path does not allocate
+     * @param indexMap The decrypted alphabet index for each alphabet index
+     * @param letterCounts Scratch array of 26 entries, overwritten
+     * @return The letter frequency score between 0.0 and 1.0
+     */
+    public double score(byte[] indexMap, int[] letterCounts) {
+        System.arraycopy(passThroughLetters, 0, letterCounts, 0, 26);
+        int totalLetters = passThroughTotal;
+        
+        for (int index = 0; index < alphabetCounts.length; index++) {
+            int count = alphabetCounts[index];
+            if (count != 0) {
+                int letter = ALPHABET_LETTERS[indexMap[index]];
+                if (letter != -1) {
+                    letterCounts[letter] += count;
+                    totalLetters += count;
+                }
+            }
+        }
+        
+        if (totalLetters == 0) {
+            return 0.0;
+        }
+        return LetterFrequencyHeuristic.scoreChiSquared(
+            LetterFrequencyHeuristic.chiSquared(letterCounts, totalLetters));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Dictionary read straight from a file compiled by DictionaryCompiler
+ * The file is memory-mapped and every lookup walks the trie in the mapped bytes, so
+ * opening is instant and the heap cost does not grow with the number of words
+ * Lookups only read the buffer, so one instance can be shared by every thread
+ * Opening checks the header; offsets read during lookups are checked as they are followed,
+ * so a truncated or corrupt file never throws, it just matches fewer words
+ */
+public class MappedDictionary {
+    
+    private final MappedByteBuffer buffer;
+    private final int wordCount;
+    private final int shortestWordLength;
+    private final int longestWordLength;
+    private final int root;
+    
+    private MappedDictionary(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.wordCount = buffer.getInt(8);
+        this.shortestWordLength = buffer.getInt(12);
+        this.longestWordLength = buffer.getInt(16);
+        this.root = buffer.getInt(20);
+    }
+    
+    /**
+     * Maps a compiled dictionary file
+     * @param path The file written by DictionaryCompiler
+     * @return The dictionary
+     * @throws IOException If the file cannot be read or is not a compiled dictionary
+     */
+    public static MappedDictionary open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < DictionaryCompiler.HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a compiled dictionary: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != DictionaryCompiler.MAGIC || buffer.getInt(4) != DictionaryCompiler.VERSION) {
+                throw new IOException("Not a compiled dictionary: " + path);
+            }
+            int root = buffer.getInt(20);
+            if (root < DictionaryCompiler.HEADER_SIZE || root >= size) {
+                throw new IOException("Corrupt dictionary: " + path);
+            }
+            return new MappedDictionary(buffer);
+        }
+    }
+    
+    /**
+     * Checks whether a slice of a char array is a word of this dictionary
+     * @param chars The characters
+     * @param start The start of the word
+     * @param length The length of the word
+     * @return True if the word is in the dictionary
+     */
+    public boolean contains(char[] chars, int start, int length) {
+        if (length < shortestWordLength || length > longestWordLength) {
+            return false;
+        }
+        int node = root;
+        for (int i = start; i < start + length; i++) {
+            node = child(node, chars[i]);
+            if (node == -1) {
+                return false;
+            }
+        }
+        return (buffer.get(node) & DictionaryCompiler.TERMINAL) != 0;
+    }
+    
+    /**
+     * Checks whether a word is in this dictionary
+     * @param word The cleaned, lowercase word
+     * @return True if the word is in the dictionary
+     */
+    public boolean contains(String word) {
+        return contains(word.toCharArray(), 0, word.length());
+    }
+    
+    /**
+     * Follows the edge of a node labeled with a letter
+     * @param node The offset of the node
+     * @param letter The letter
+     * @return The offset of the child, or -1 if there is none
+     */
+    private int child(int node, char letter) {
+        if (letter < 'a' || letter > 'z') {
+            return -1;
+        }
+        int children = buffer.get(node) & (DictionaryCompiler.TERMINAL - 1);
+        
+        // Children are sorted by letter, and there are at most 26 of them
+        for (int edge = node + 1; edge < node + 1 + 5 * children; edge += 5) {
+            if (edge + 5 > buffer.limit()) {
+                return -1;  // Truncated file
+            }
+            int label = buffer.get(edge);
+            if (label == letter) {
+                int child = buffer.getInt(edge + 1);
+                return isNodeOffset(child) ? child : -1;
+            }
+            if (label > letter) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Checks whether an offset read from the file can point at a node
+     * A corrupt offset is treated as a missing child, so a damaged file gives wrong
+     * answers instead of failing inside the scoring threads
+     */
+    private boolean isNodeOffset(int offset) {
+        return offset >= DictionaryCompiler.HEADER_SIZE && offset < buffer.limit();
+    }
+    
+    /**
+     * Gets the number of words
+     * @return The word count
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+    
+    /**
+     * Gets the length of the shortest word
+     * @return The shortest word length, 0 if there are no words
+     */
+    public int getShortestWordLength() {
+        return shortestWordLength;
+    }
+    
+    /**
+     * Gets the length of the longest word
+     * @return The longest word length
+     */
+    public int getLongestWordLength() {
+        return longestWordLength;
+    }
+}
\ No newline at end of file
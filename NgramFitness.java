@@ -0,0 +1,110 @@
+import java.util.Set;
+
+/**
+ * Fast trigram fitness function for English plaintext
+ * Trigram log-probabilities are trained once from the dictionary words, with word
+ * boundaries as a separate symbol, and stored in a flat array so a text is scored with
+ * one table lookup per position. Digits and punctuation share a single rare symbol
+ */
+public class NgramFitness {
+    
+    // Symbols: 0-25 are letters (case-insensitive), then word boundary, then anything else
+    public static final int BOUNDARY = 26;
+    public static final int OTHER = 27;
+    public static final int SYMBOLS = 28;
+    
+    // Symbol of each alphabet index
+    private static final int[] ALPHABET_SYMBOLS = new int[CipherUtils.getAlphabetSize()];
+    static {
+        for (int i = 0; i < ALPHABET_SYMBOLS.length; i++) {
+            int letter = LetterFrequencyHeuristic.letterIndex(CipherUtils.getAlphabetChar(i));
+            ALPHABET_SYMBOLS[i] = letter != -1 ? letter : OTHER;
+        }
+    }
+    
+    private static final NgramFitness ENGLISH = new NgramFitness(DictionaryHeuristic.getWords());
+    
+    private final float[] trigramScores;
+    
+    /**
+     * Trains trigram log-probabilities from a word list with add-one smoothing
+     * @param words The lowercase training words
+     */
+    public NgramFitness(Set<String> words) {
+        int[] counts = new int[SYMBOLS * SYMBOLS * SYMBOLS];
+        long total = 0;
+        
+        for (String word : words) {
+            // Each word is padded with boundaries so starts and ends of words are learned too
+            int previous2 = BOUNDARY;
+            int previous1 = BOUNDARY;
+            for (int i = 0; i <= word.length(); i++) {
+                int symbol = i < word.length() ? symbolOf(word.charAt(i)) : BOUNDARY;
+                counts[(previous2 * SYMBOLS + previous1) * SYMBOLS + symbol]++;
+                total++;
+                previous2 = previous1;
+                previous1 = symbol;
+            }
+        }
+        
+        this.trigramScores = new float[counts.length];
+        double denominator = total + counts.length;
+        for (int i = 0; i < counts.length; i++) {
+            trigramScores[i] = (float) Math.log((counts[i] + 1) / denominator);
+        }
+    }
+    
+    /**
+     * Gets the fitness function trained on the dictionary words
+     * @return The shared English fitness function
+     */
+    public static NgramFitness english() {
+        return ENGLISH;
+    }
+    
+    /**
+     * Gets the symbol of an alphabet index
+     * @param alphabetIndex The alphabet index
+     * @return The letter (0-25) or OTHER
+     */
+    public static int symbolOfIndex(int alphabetIndex) {
+        return ALPHABET_SYMBOLS[alphabetIndex];
+    }
+    
+    /**
+     * Gets the symbol of any character
+     * @param c The character
+     * @return The letter (0-25), BOUNDARY for whitespace, or OTHER
+     */
+    public static int symbolOf(char c) {
+        if (Character.isWhitespace(c)) {
+            return BOUNDARY;
+        }
+        int letter = LetterFrequencyHeuristic.letterIndex(c);
+        return letter != -1 ? letter : OTHER;
+    }
+    
+    /**
+     * Gets the log-probability of one trigram
+     * @param first The first symbol
+     * @param second The second symbol
+     * @param third The third symbol
+     * @return The log-probability
+     */
+    public double score(int first, int second, int third) {
+        return trigramScores[(first * SYMBOLS + second) * SYMBOLS + third];
+    }
+    
+    /**
+     * Scores a whole symbol sequence
+     * @param symbols The symbols
+     * @return The sum of the log-probabilities of all trigrams
+     */
+    public double score(int[] symbols) {
+        double total = 0.0;
+        for (int i = 0; i + 2 < symbols.length; i++) {
+            total += trigramScores[(symbols[i] * SYMBOLS + symbols[i + 1]) * SYMBOLS + symbols[i + 2]];
+        }
+        return total;
+    }
+}
\ No newline at end of file
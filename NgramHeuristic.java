@@ -6,10 +6,9 @@ import java.util.Map;
  * This would analyze sequences of N characters/words to determine text quality
  * Currently provides a basic implementation that can be extended for full N-gram analysis
  */
-public class NgramHeuristic implements Heuristic {
+public class NgramHeuristic extends AbstractHeuristic {
     
     private int ngramSize;
-    private String lastSummary = "";
     
     /**
      * Creates an N-gram heuristic with the specified N-gram size
@@ -27,16 +26,20 @@ public class NgramHeuristic implements Heuristic {
     }
     
     @Override
-    public double analyze(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            lastSummary = "No text to analyze";
-            return 0.0;
+    public double score(AnalyzedText text) {
+        return evaluate(text).getValue();
+    }
+    
+    @Override
+    public HeuristicScore evaluate(AnalyzedText text) {
+        if (text.isBlank()) {
+            return HeuristicScore.of(0.0, "No text to analyze");
         }
         
         // Basic implementation: count unique N-grams and compare to total possible
         // This is a stub - a full implementation would compare against expected English N-gram frequencies
         
-        String cleanText = text.toLowerCase().replaceAll("[^a-zA-Z\\s]", "");
+        String cleanText = text.getCleanedText();
         Map<String, Integer> ngramCounts = new HashMap<>();
         int totalNgrams = 0;
         
@@ -51,8 +54,7 @@ public class NgramHeuristic implements Heuristic {
         }
         
         if (totalNgrams == 0) {
-            lastSummary = String.format("No valid %d-grams found", ngramSize);
-            return 0.0;
+            return HeuristicScore.of(0.0, String.format("No valid %d-grams found", ngramSize));
         }
         
         // Simple scoring: diversity of N-grams suggests more natural text
@@ -76,10 +78,10 @@ public class NgramHeuristic implements Heuristic {
         
         score = Math.max(0.0, Math.min(1.0, score));
         
-        lastSummary = String.format("Found %d unique %d-grams out of %d total (diversity: %.2f)", 
-                                   ngramCounts.size(), ngramSize, totalNgrams, diversity);
-        
-        return score;
+        int uniqueNgrams = ngramCounts.size();
+        int total = totalNgrams;
+        return new HeuristicScore(score, () -> String.format("Found %d unique %d-grams out of %d total (diversity: %.2f)", 
+                                                             uniqueNgrams, ngramSize, total, diversity));
     }
     
     @Override
@@ -87,11 +89,6 @@ public class NgramHeuristic implements Heuristic {
         return String.format("%d-gram Analysis", ngramSize);
     }
     
-    @Override
-    public String getSummary() {
-        return lastSummary;
-    }
-    
     /**
      * Gets the N-gram size used by this heuristic
      * @return The N-gram size
@@ -0,0 +1,99 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cascaded scoring pipeline that spends the expensive heuristics only on promising keys
+ * Every key is first scored by letter frequency. Only the best fraction of them is checked
+ * against the dictionary, and only the best fraction of those, ranked by letter frequency
+ * plus dictionary score, is scored by the grapheme heuristic. Survivors get exactly the
+ * scores a full evaluation gives them; the counts of discarded keys are kept per stage
+ */
+public class ScoringCascade {
+    
+    private final double keepFraction;
+    private final int minimumKept;
+    private final AtomicLong scoredKeys = new AtomicLong();
+    private final AtomicLong letterDiscarded = new AtomicLong();
+    private final AtomicLong dictionaryDiscarded = new AtomicLong();
+    
+    /**
+     * Creates a cascade
+     * @param keepFraction The fraction of keys each stage passes on, in (0, 1]
+     * @param minimumKept The fewest keys a stage passes on, when it has that many
+     */
+    public ScoringCascade(double keepFraction, int minimumKept) {
+        this.keepFraction = keepFraction;
+        this.minimumKept = minimumKept;
+    }
+    
+    /**
+     * Selects the keys a stage passes on
+     * @param scores The stage score of each key, indexed by key
+     * @param keys The keys that reached the stage
+     * @return The best keys, in ascending order; ties keep the lower key
+     */
+    public int[] select(double[] scores, int[] keys) {
+        long kept = Math.max(minimumKept, (long) Math.ceil(keepFraction * keys.length));
+        if (kept >= keys.length) {
+            return keys;
+        }
+        
+        TopKeyCollector collector = new TopKeyCollector((int) kept);
+        for (int key : keys) {
+            collector.offer(key, scores[key]);
+        }
+        long[] best = collector.getKeysBestFirst();
+        int[] selected = new int[best.length];
+        for (int i = 0; i < best.length; i++) {
+            selected[i] = (int) best[i];
+        }
+        Arrays.sort(selected);
+        return selected;
+    }
+    
+    /**
+     * Records how many keys one run through the cascade discarded at each stage
+     * @param keys The number of keys scored by letter frequency
+     * @param afterLetter The number of keys passed on to the dictionary stage
+     * @param afterDictionary The number of keys passed on to the grapheme stage
+     */
+    public void record(long keys, long afterLetter, long afterDictionary) {
+        scoredKeys.addAndGet(keys);
+        letterDiscarded.addAndGet(keys - afterLetter);
+        dictionaryDiscarded.addAndGet(afterLetter - afterDictionary);
+    }
+    
+    /**
+     * Gets the number of keys scored by the first stage
+     * @return The number of keys
+     */
+    public long getScoredKeys() {
+        return scoredKeys.get();
+    }
+    
+    /**
+     * Gets the number of keys discarded after the letter frequency stage
+     * @return The number of keys
+     */
+    public long getLetterDiscarded() {
+        return letterDiscarded.get();
+    }
+    
+    /**
+     * Gets the number of keys discarded after the dictionary stage
+     * @return The number of keys
+     */
+    public long getDictionaryDiscarded() {
+        return dictionaryDiscarded.get();
+    }
+    
+    /**
+     * Gets a one-line report of the discards of each stage
+     * @return The report
+     */
+    public String getReport() {
+        long fullyScored = getScoredKeys() - getLetterDiscarded() - getDictionaryDiscarded();
+        return String.format("%d keys, letter frequency discarded %d, dictionary discarded %d, %d fully scored",
+                             getScoredKeys(), getLetterDiscarded(), getDictionaryDiscarded(), fullyScored);
+    }
+}
\ No newline at end of file
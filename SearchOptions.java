@@ -0,0 +1,404 @@
+/**
+ * Command line options for BruteForceSearch
+ */
+public class SearchOptions {
+    
+    private int numThreads = 4;     // default value
+    private int shortlistSize = 0;  // 0 decrypts and fully scores every key
+    private boolean fullAlphabet = false;
+    private boolean vigenereSolver = false;
+    private int maxKeyLength = 16;  // Longest key the Vigenère solver considers
+    private boolean exhaustive = false;
+    private boolean affineSolver = false;
+    private boolean longKeys = false;
+    private int restarts = 20;      // Hill-climbing restarts per key length
+    private String crib = null;     // Known plaintext, null to brute-force
+    private boolean substitution = false;
+    private boolean autokey = false;
+    private boolean batch = false;
+    private long timeBudgetMs = 2000; // Hill-climbing time per file for the substitution solver
+    private int topCount = DEFAULT_TOP_COUNT;
+    private double cascadeFraction = 0; // 0 runs every heuristic on every key
+    private String dictionaryFile = null; // Compiled dictionary, null for the built-in words
+    
+    // Results reported per file, and so the least the full sweeps must keep
+    public static final int DEFAULT_TOP_COUNT = 5;
+    
+    // Survivors kept per key length by the exhaustive sweep when no shortlist size is given
+    private static final int DEFAULT_SURVIVORS = 50;
+    
+    /**
+     * Parses the command line arguments
+     * @param args The command line arguments
+     * @return The parsed options
+     * @throws IllegalArgumentException If an option has an invalid value
+     */
+    public static SearchOptions parse(String[] args) {
+        SearchOptions options = new SearchOptions();
+        
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                options.numThreads = parsePositive(args[i + 1], "number of threads");
+            } else if (args[i].equals("--shortlist") && i + 1 < args.length) {
+                options.shortlistSize = parsePositive(args[i + 1], "shortlist size");
+            } else if (args[i].equals("--full-alphabet")) {
+                options.fullAlphabet = true;
+            } else if (args[i].equals("--vigenere-solver")) {
+                options.vigenereSolver = true;
+            } else if (args[i].equals("--affine-solver")) {
+                options.affineSolver = true;
+            } else if (args[i].equals("--exhaustive")) {
+                options.exhaustive = true;
+            } else if (args[i].equals("--long-keys")) {
+                options.longKeys = true;
+            } else if (args[i].equals("--restarts") && i + 1 < args.length) {
+                options.restarts = parsePositive(args[i + 1], "number of restarts");
+            } else if (args[i].equals("--top") && i + 1 < args.length) {
+                options.topCount = parseAtLeast(args[i + 1], "top count", DEFAULT_TOP_COUNT);
+            } else if (args[i].equals("--cascade") && i + 1 < args.length) {
+                options.cascadeFraction = parseFraction(args[i + 1], "cascade fraction");
+            } else if (args[i].equals("--dictionary") && i + 1 < args.length) {
+                options.dictionaryFile = args[i + 1];
+            } else if (args[i].equals("--batch")) {
+                options.batch = true;
+            } else if (args[i].equals("--autokey")) {
+                options.autokey = true;
+            } else if (args[i].equals("--substitution")) {
+                options.substitution = true;
+            } else if (args[i].equals("--time-budget") && i + 1 < args.length) {
+                options.timeBudgetMs = parsePositive(args[i + 1], "time budget");
+            } else if (args[i].equals("--crib") && i + 1 < args.length) {
+                if (args[i + 1].isEmpty()) {
+                    throw new IllegalArgumentException("Crib must not be empty");
+                }
+                options.crib = args[i + 1];
+            } else if (args[i].equals("--max-key-length") && i + 1 < args.length) {
+                options.maxKeyLength = parsePositive(args[i + 1], "maximum key length");
+            }
+        }
+        
+        return options;
+    }
+    
+    /**
+     * Parses an integer option that must be at least 1
+     */
+    private static int parsePositive(String value, String name) {
+        return parseAtLeast(value, name, 1);
+    }
+    
+    /**
+     * Parses an integer option that must be at least a minimum
+     */
+    private static int parseAtLeast(String value, String name, int minimum) {
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        if (parsed < minimum) {
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            throw new IllegalArgumentException(capitalized + " must be at least " + minimum);
+        }
+        return parsed;
+    }
+    
+    /**
+     * Parses an option that must be a fraction in (0, 1]
+     */
+    private static double parseFraction(String value, String name) {
+        double parsed;
+        try {
+            parsed = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        if (!(parsed > 0 && parsed <= 1)) {
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            throw new IllegalArgumentException(capitalized + " must be greater than 0 and at most 1");
+        }
+        return parsed;
+    }
+    
+    /**
+     * Gets the number of threads used for parallel searches
+     * @return The number of threads
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+    
+    /**
+     * Sets the number of threads used for parallel searches
+     * @param numThreads The number of threads, at least 1
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+    }
+    
+    /**
+     * Gets how many keys per cipher are fully decrypted after histogram scoring
+     * @return The shortlist size, or 0 if every key is fully scored
+     */
+    public int getShortlistSize() {
+        return shortlistSize;
+    }
+    
+    /**
+     * Sets how many keys per cipher are fully decrypted after histogram scoring
+     * @param shortlistSize The shortlist size, or 0 to fully score every key
+     */
+    public void setShortlistSize(int shortlistSize) {
+        this.shortlistSize = shortlistSize;
+    }
+    
+    /**
+     * Checks whether histogram-scored Vigenère keys of 2-4 characters use the whole alphabet
+     * @return True for the whole alphabet, false for the 26 common lowercase letters
+     */
+    public boolean isFullAlphabet() {
+        return fullAlphabet;
+    }
+    
+    /**
+     * Sets whether histogram-scored Vigenère keys of 2-4 characters use the whole alphabet
+     * @param fullAlphabet True for the whole alphabet, false for the 26 common lowercase letters
+     */
+    public void setFullAlphabet(boolean fullAlphabet) {
+        this.fullAlphabet = fullAlphabet;
+    }
+    
+    /**
+     * Checks whether the Vigenère cipher is solved by key-length estimation instead of enumeration
+     * @return True to use the Vigenère solver
+     */
+    public boolean isVigenereSolver() {
+        return vigenereSolver;
+    }
+    
+    /**
+     * Sets whether the Vigenère cipher is solved by key-length estimation instead of enumeration
+     * @param vigenereSolver True to use the Vigenère solver
+     */
+    public void setVigenereSolver(boolean vigenereSolver) {
+        this.vigenereSolver = vigenereSolver;
+    }
+    
+    /**
+     * Gets the longest key length the Vigenère solver considers
+     * @return The maximum key length
+     */
+    public int getMaxKeyLength() {
+        return maxKeyLength;
+    }
+    
+    /**
+     * Sets the longest key length the Vigenère solver considers
+     * @param maxKeyLength The maximum key length, at least 1
+     */
+    public void setMaxKeyLength(int maxKeyLength) {
+        this.maxKeyLength = maxKeyLength;
+    }
+    
+    /**
+     * Checks whether Vigenère keys of 1-4 characters are swept over the whole alphabet
+     * @return True for the exhaustive full-alphabet sweep
+     */
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+    
+    /**
+     * Sets whether Vigenère keys of 1-4 characters are swept over the whole alphabet
+     * @param exhaustive True for the exhaustive full-alphabet sweep
+     */
+    public void setExhaustive(boolean exhaustive) {
+        this.exhaustive = exhaustive;
+    }
+    
+    /**
+     * Gets how many keys per length the exhaustive sweep and the Autokey search keep for full evaluation
+     * @return The shortlist size if one was given, otherwise a default of 50
+     */
+    public int getSurvivorCount() {
+        return shortlistSize > 0 ? shortlistSize : DEFAULT_SURVIVORS;
+    }
+    
+    /**
+     * Checks whether Vigenère keys of 5-30 characters are searched by hill-climbing
+     * @return True to run the long-key search
+     */
+    public boolean isLongKeys() {
+        return longKeys;
+    }
+    
+    /**
+     * Sets whether Vigenère keys of 5-30 characters are searched by hill-climbing
+     * @param longKeys True to run the long-key search
+     */
+    public void setLongKeys(boolean longKeys) {
+        this.longKeys = longKeys;
+    }
+    
+    /**
+     * Gets the number of hill-climbing restarts per key length
+     * @return The number of restarts
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+    
+    /**
+     * Sets the number of hill-climbing restarts per key length
+     * @param restarts The number of restarts, at least 1
+     */
+    public void setRestarts(int restarts) {
+        this.restarts = restarts;
+    }
+    
+    /**
+     * Gets the known plaintext used to solve keys directly
+     * @return The crib, or null to brute-force the key space
+     */
+    public String getCrib() {
+        return crib;
+    }
+    
+    /**
+     * Sets the known plaintext used to solve keys directly
+     * @param crib The crib, or null to brute-force the key space
+     */
+    public void setCrib(String crib) {
+        this.crib = crib;
+    }
+    
+    /**
+     * Checks whether Affine keys are solved by frequency alignment instead of swept
+     * @return True to use the Affine solver
+     */
+    public boolean isAffineSolver() {
+        return affineSolver;
+    }
+    
+    /**
+     * Sets whether Affine keys are solved by frequency alignment instead of swept
+     * @param affineSolver True to use the Affine solver
+     */
+    public void setAffineSolver(boolean affineSolver) {
+        this.affineSolver = affineSolver;
+    }
+    
+    /**
+     * Checks whether the general substitution cipher is searched
+     * @return True to run the substitution solver
+     */
+    public boolean isSubstitution() {
+        return substitution;
+    }
+    
+    /**
+     * Sets whether the general substitution cipher is searched
+     * @param substitution True to run the substitution solver
+     */
+    public void setSubstitution(boolean substitution) {
+        this.substitution = substitution;
+    }
+    
+    /**
+     * Gets the time the substitution solver spends on each file
+     * @return The time budget in milliseconds
+     */
+    public long getTimeBudgetMs() {
+        return timeBudgetMs;
+    }
+    
+    /**
+     * Sets the time the substitution solver spends on each file
+     * @param timeBudgetMs The time budget in milliseconds, at least 1
+     */
+    public void setTimeBudgetMs(long timeBudgetMs) {
+        this.timeBudgetMs = timeBudgetMs;
+    }
+    
+    /**
+     * Checks whether Autokey primers are searched
+     * @return True to run the Autokey search
+     */
+    public boolean isAutokey() {
+        return autokey;
+    }
+    
+    /**
+     * Sets whether Autokey primers are searched
+     * @param autokey True to run the Autokey search
+     */
+    public void setAutokey(boolean autokey) {
+        this.autokey = autokey;
+    }
+    
+    /**
+     * Checks whether all files are processed in one batch
+     * @return True to enumerate the keys of the full sweeps once for all files
+     */
+    public boolean isBatch() {
+        return batch;
+    }
+    
+    /**
+     * Sets whether all files are processed in one batch
+     * @param batch True to enumerate the keys of the full sweeps once for all files
+     */
+    public void setBatch(boolean batch) {
+        this.batch = batch;
+    }
+    
+    /**
+     * Gets the number of best candidates the full sweeps keep and the solvers verify per file
+     * @return The top count
+     */
+    public int getTopCount() {
+        return topCount;
+    }
+    
+    /**
+     * Sets the number of best candidates the full sweeps keep and the solvers verify per file
+     * Fewer than DEFAULT_TOP_COUNT would drop results the report prints, so smaller values are raised to it
+     * @param topCount The top count
+     */
+    public void setTopCount(int topCount) {
+        this.topCount = Math.max(topCount, DEFAULT_TOP_COUNT);
+    }
+    
+    /**
+     * Gets the fraction of keys each stage of the scoring cascade passes on
+     * @return The fraction, or 0 if every heuristic runs on every key
+     */
+    public double getCascadeFraction() {
+        return cascadeFraction;
+    }
+    
+    /**
+     * Sets the fraction of keys each stage of the scoring cascade passes on
+     * @param cascadeFraction The fraction in (0, 1], or 0 to run every heuristic on every key
+     */
+    public void setCascadeFraction(double cascadeFraction) {
+        this.cascadeFraction = cascadeFraction;
+    }
+    
+    /**
+     * Gets the compiled dictionary file the dictionary heuristic scores against
+     * @return The path of a file written by DictionaryCompiler, or null for the built-in words
+     */
+    public String getDictionaryFile() {
+        return dictionaryFile;
+    }
+    
+    /**
+     * Sets the compiled dictionary file the dictionary heuristic scores against
+     * @param dictionaryFile The path of a file written by DictionaryCompiler, or null for the built-in words
+     */
+    public void setDictionaryFile(String dictionaryFile) {
+        this.dictionaryFile = dictionaryFile;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+/**
+ * Implementation of the general monoalphabetic substitution cipher
+ * The key is any permutation of the alphabet: each alphabet character encrypts to the
+ * key character at the same position
+ */
+public class SubstitutionCipher implements Cipher {
+    
+    private String key;
+    private SubstitutionTable encryptTable;
+    private SubstitutionTable table;  // Compiled decryption table for this key
+    
+    /**
+     * Creates a substitution cipher with the specified key
+     * @param key A permutation of the alphabet
+     * @throws IllegalArgumentException If the key is not a permutation of the alphabet
+     */
+    public SubstitutionCipher(String key) {
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        if (key.length() != alphabetSize) {
+            throw new IllegalArgumentException("The key must have exactly " + alphabetSize + " characters");
+        }
+        
+        byte[] encryptMap = new byte[alphabetSize];
+        byte[] decryptMap = new byte[alphabetSize];
+        boolean[] used = new boolean[alphabetSize];
+        for (int i = 0; i < alphabetSize; i++) {
+            int index = CipherUtils.getAlphabetIndex(key.charAt(i));
+            if (index == -1 || used[index]) {
+                throw new IllegalArgumentException("The key must be a permutation of the alphabet");
+            }
+            used[index] = true;
+            encryptMap[i] = (byte) index;
+            decryptMap[index] = (byte) i;
+        }
+        
+        this.key = key;
+        this.encryptTable = new SubstitutionTable(encryptMap);
+        this.table = new SubstitutionTable(decryptMap);
+    }
+    
+    /**
+     * Creates the substitution cipher whose decryption maps each alphabet index as given
+     * @param decryptMap The decrypted alphabet index of each alphabet index (a permutation)
+     * @return The cipher
+     */
+    public static SubstitutionCipher fromDecryptMap(int[] decryptMap) {
+        char[] key = new char[decryptMap.length];
+        for (int cipherIndex = 0; cipherIndex < decryptMap.length; cipherIndex++) {
+            key[decryptMap[cipherIndex]] = CipherUtils.getAlphabetChar(cipherIndex);
+        }
+        return new SubstitutionCipher(new String(key));
+    }
+    
+    /**
+     * Encrypts text using the substitution cipher
+     * @param plaintext The text to encrypt
+     * @return The encrypted text
+     */
+    @Override
+    public String encrypt(String plaintext) {
+        // Spaces and characters not in the alphabet map to themselves in the table
+        return encryptTable.apply(plaintext);
+    }
+    
+    /**
+     * Decrypts text using the substitution cipher
+     * @param ciphertext The text to decrypt
+     * @return The decrypted text
+     */
+    @Override
+    public String decrypt(String ciphertext) {
+        return table.apply(ciphertext);
+    }
+    
+    /**
+     * Decrypts pre-encoded text into a reusable buffer
+     * @param encoded The encoded ciphertext
+     * @param out The output buffer for the decrypted alphabet indices
+     */
+    @Override
+    public void decryptInto(EncodedText encoded, byte[] out) {
+        table.applyInto(encoded, out);
+    }
+    
+    /**
+     * Gets the key
+     * @return The permutation of the alphabet
+     */
+    @Override
+    public String getKey() {
+        return key;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+import java.util.Random;
+
+/**
+ * Hill-climbing solver for the general substitution cipher
+ * Starting from a random decryption mapping, pairs of ciphertext symbols swap their
+ * plaintext symbols whenever that improves the fitness, until no swap improves it.
+ * Fitness is the trigram log-probability of the decryption plus the weighted
+ * log-probability of each decrypted symbol, which prefers lowercase letters over capitals
+ * and digits. A swap only changes the positions of its two ciphertext symbols, so only
+ * the trigrams around those positions are rescored. Independent restarts escape local optima
+ */
+public class SubstitutionHillClimber {
+    
+    private static final int SIZE = CipherUtils.getAlphabetSize();
+    
+    // The trigrams come from a word list without word frequencies, so the symbol
+    // frequencies are weighted up to pull the mapping towards common letters
+    private static final double SYMBOL_WEIGHT = 3.0;
+    
+    private final NgramFitness fitness;
+    private final byte[] cipherIndices;
+    private final int[] fixedSymbols;       // Symbols of pass-through positions
+    private final int[] counts;             // Occurrences of each ciphertext symbol
+    private final int[][] symbolPositions;  // Text positions of each ciphertext symbol, ascending
+    private final int[] presentSymbols;     // Ciphertext symbols that occur at least once
+    
+    /**
+     * Creates a climber for one ciphertext
+     * @param encoded The encoded ciphertext
+     */
+    public SubstitutionHillClimber(EncodedText encoded) {
+        this.fitness = NgramFitness.english();
+        this.cipherIndices = encoded.getIndices();
+        this.fixedSymbols = new int[cipherIndices.length];
+        this.counts = new int[SIZE];
+        
+        for (int i = 0; i < cipherIndices.length; i++) {
+            if (cipherIndices[i] != EncodedText.PASS_THROUGH) {
+                counts[cipherIndices[i]]++;
+            } else {
+                fixedSymbols[i] = NgramFitness.symbolOf(encoded.charAt(i));
+            }
+        }
+        
+        this.symbolPositions = new int[SIZE][];
+        int present = 0;
+        for (int index = 0; index < SIZE; index++) {
+            symbolPositions[index] = new int[counts[index]];
+            if (counts[index] > 0) {
+                present++;
+            }
+        }
+        int[] filled = new int[SIZE];
+        for (int i = 0; i < cipherIndices.length; i++) {
+            if (cipherIndices[i] != EncodedText.PASS_THROUGH) {
+                symbolPositions[cipherIndices[i]][filled[cipherIndices[i]]++] = i;
+            }
+        }
+        
+        this.presentSymbols = new int[present];
+        present = 0;
+        for (int index = 0; index < SIZE; index++) {
+            if (counts[index] > 0) {
+                presentSymbols[present++] = index;
+            }
+        }
+    }
+    
+    /**
+     * Runs one restart from a random mapping until no swap improves it
+     * @param seed The seed of the random starting mapping
+     * @return The decrypted alphabet index of each ciphertext alphabet index
+     */
+    public int[] climb(long seed) {
+        Random random = new Random(seed);
+        int[] plainOf = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            plainOf[i] = i;
+        }
+        for (int i = SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = plainOf[i];
+            plainOf[i] = plainOf[j];
+            plainOf[j] = swap;
+        }
+        
+        int[] symbols = fixedSymbols.clone();
+        for (int x : presentSymbols) {
+            setSymbol(symbols, plainOf, x);
+        }
+        
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int x : presentSymbols) {
+                for (int y = 0; y < SIZE; y++) {
+                    // Swaps between two present symbols are tried once, from the lower one
+                    if (y == x || (counts[y] > 0 && y < x)) {
+                        continue;
+                    }
+                    double before = swapScore(symbols, plainOf, x, y);
+                    swap(symbols, plainOf, x, y);
+                    if (swapScore(symbols, plainOf, x, y) > before + 1e-9) {
+                        improved = true;
+                    } else {
+                        swap(symbols, plainOf, x, y);
+                    }
+                }
+            }
+        }
+        return plainOf;
+    }
+    
+    /**
+     * Gets the fitness of the full decryption under a mapping
+     * @param plainOf The decrypted alphabet index of each ciphertext alphabet index
+     * @return The sum of the trigram and symbol log-probabilities
+     */
+    public double score(int[] plainOf) {
+        int[] symbols = fixedSymbols.clone();
+        double total = 0.0;
+        for (int x : presentSymbols) {
+            setSymbol(symbols, plainOf, x);
+            total += SYMBOL_WEIGHT * counts[x] * VigenereSolver.symbolLogProbability(plainOf[x]);
+        }
+        return total + fitness.score(symbols);
+    }
+    
+    /**
+     * Checks whether two mappings decrypt the ciphertext identically
+     * Symbols that do not occur in the ciphertext are ignored
+     * @param first The first mapping
+     * @param second The second mapping
+     * @return True if every present ciphertext symbol maps the same way
+     */
+    public boolean sameDecryption(int[] first, int[] second) {
+        for (int x : presentSymbols) {
+            if (first[x] != second[x]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Swaps the plaintext symbols of two ciphertext symbols
+     */
+    private void swap(int[] symbols, int[] plainOf, int x, int y) {
+        int plain = plainOf[x];
+        plainOf[x] = plainOf[y];
+        plainOf[y] = plain;
+        setSymbol(symbols, plainOf, x);
+        setSymbol(symbols, plainOf, y);
+    }
+    
+    /**
+     * Decrypts every position of one ciphertext symbol into the symbol array
+     */
+    private void setSymbol(int[] symbols, int[] plainOf, int x) {
+        int symbol = NgramFitness.symbolOfIndex(plainOf[x]);
+        for (int position : symbolPositions[x]) {
+            symbols[position] = symbol;
+        }
+    }
+    
+    /**
+     * Sums the fitness terms that a swap of x and y can change: the symbol
+     * log-probabilities of both and every trigram touching one of their positions,
+     * each trigram counted once
+     */
+    private double swapScore(int[] symbols, int[] plainOf, int x, int y) {
+        double total = SYMBOL_WEIGHT * (counts[x] * VigenereSolver.symbolLogProbability(plainOf[x])
+                                        + counts[y] * VigenereSolver.symbolLogProbability(plainOf[y]));
+        
+        // Merge the two ascending position lists
+        int[] xPositions = symbolPositions[x];
+        int[] yPositions = symbolPositions[y];
+        int last = symbols.length - 3;
+        int counted = -1;  // Last trigram start already added
+        int i = 0;
+        int j = 0;
+        while (i < xPositions.length || j < yPositions.length) {
+            int position;
+            if (j == yPositions.length || (i < xPositions.length && xPositions[i] < yPositions[j])) {
+                position = xPositions[i++];
+            } else {
+                position = yPositions[j++];
+            }
+            for (int start = Math.max(Math.max(0, position - 2), counted + 1); start <= Math.min(position, last); start++) {
+                total += fitness.score(symbols[start], symbols[start + 1], symbols[start + 2]);
+                counted = start;
+            }
+        }
+        return total;
+    }
+}
\ No newline at end of file
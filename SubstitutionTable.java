@@ -0,0 +1,83 @@
+/**
+ * Compiled decryption table for a single monoalphabetic key
+ * Maps every alphabet character to its decryption with one array lookup,
+ * both as a 128-entry char table and as a table over alphabet indices
+ * Characters outside the alphabet map to themselves so they pass through unchanged
+ */
+public class SubstitutionTable {
+    
+    private static final int ASCII_SIZE = 128;
+    
+    private final char[] charMap;
+    private final byte[] indexMap;
+    
+    /**
+     * Creates a table from the decrypted alphabet index of each alphabet index
+     * @param indexMap The decrypted index for each alphabet index (must be a permutation)
+     */
+    public SubstitutionTable(byte[] indexMap) {
+        this.indexMap = indexMap.clone();
+        this.charMap = new char[ASCII_SIZE];
+        
+        for (int c = 0; c < ASCII_SIZE; c++) {
+            charMap[c] = (char) c;
+        }
+        for (int i = 0; i < indexMap.length; i++) {
+            charMap[CipherUtils.getAlphabetChar(i)] = CipherUtils.getAlphabetChar(indexMap[i]);
+        }
+    }
+    
+    /**
+     * Maps a single character through the table
+     * @param c The character to map
+     * @return The mapped character, or c itself if it is outside the alphabet
+     */
+    public char map(char c) {
+        return c < ASCII_SIZE ? charMap[c] : c;
+    }
+    
+    /**
+     * Maps a single alphabet index through the table
+     * @param index The alphabet index to map
+     * @return The mapped alphabet index
+     */
+    public int mapIndex(int index) {
+        return indexMap[index];
+    }
+    
+    /**
+     * Gets the table over alphabet indices
+     * The returned array is shared and must not be modified
+     * @return The mapped index for each alphabet index
+     */
+    public byte[] getIndexMap() {
+        return indexMap;
+    }
+    
+    /**
+     * Applies the table to every character of a string
+     * @param text The text to map
+     * @return The mapped text
+     */
+    public String apply(String text) {
+        char[] result = text.toCharArray();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = map(result[i]);
+        }
+        return new String(result);
+    }
+    
+    /**
+     * Applies the table to pre-encoded text into a reusable buffer
+     * @param encoded The encoded text
+     * @param out The output buffer for the mapped alphabet indices
+     */
+    public void applyInto(EncodedText encoded, byte[] out) {
+        byte[] indices = encoded.getIndices();
+        
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            out[i] = index == EncodedText.PASS_THROUGH ? EncodedText.PASS_THROUGH : indexMap[index];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded collection of the best-scoring decryption candidates
+ * Candidates are kept in a min-heap of fixed capacity ordered by combined score, so
+ * memory stays constant however many candidates are offered. Equal scores prefer the
+ * lower order number, so the result matches a stable sort of the candidates in the
+ * order they were generated, independent of thread scheduling
+ */
+public class TopCandidateCollector {
+    
+    private final int capacity;
+    private final PriorityQueue<Entry> heap;
+    
+    /**
+     * A kept candidate with the position it was generated at
+     */
+    private static class Entry {
+        private final DecryptionCandidate candidate;
+        private final long order;
+        
+        private Entry(DecryptionCandidate candidate, long order) {
+            this.candidate = candidate;
+            this.order = order;
+        }
+    }
+    
+    /**
+     * Creates an empty collector
+     * @param capacity The number of candidates to keep
+     */
+    public TopCandidateCollector(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.heap = new PriorityQueue<>((x, y) -> isWorse(x, y) ? -1 : isWorse(y, x) ? 1 : 0);
+    }
+    
+    /**
+     * Offers a candidate to the collector
+     * @param candidate The scored candidate
+     * @param order The position the candidate was generated at, used to break ties
+     * @return True if the candidate was kept
+     */
+    public boolean offer(DecryptionCandidate candidate, long order) {
+        return offer(new Entry(candidate, order));
+    }
+    
+    /**
+     * Checks whether a candidate with a given score would be kept, without building it
+     * @param score The candidate's combined score
+     * @param order The position the candidate was generated at, used to break ties
+     * @return True if offering the candidate would keep it
+     */
+    public boolean accepts(double score, long order) {
+        if (heap.size() < capacity) {
+            return true;
+        }
+        if (heap.isEmpty()) {
+            return false;
+        }
+        Entry worst = heap.peek();
+        return isWorse(worst.candidate.getCombinedScore(), worst.order, score, order);
+    }
+    
+    /**
+     * Keeps an entry if there is room or it beats the worst kept entry
+     */
+    private boolean offer(Entry entry) {
+        if (heap.size() < capacity) {
+            heap.add(entry);
+            return true;
+        }
+        if (heap.isEmpty() || !isWorse(heap.peek(), entry)) {
+            return false;
+        }
+        heap.poll();
+        heap.add(entry);
+        return true;
+    }
+    
+    /**
+     * Checks whether the first entry ranks below the second
+     */
+    private static boolean isWorse(Entry entry, Entry other) {
+        return isWorse(entry.candidate.getCombinedScore(), entry.order,
+                       other.candidate.getCombinedScore(), other.order);
+    }
+    
+    /**
+     * Checks whether the first score and order rank below the second
+     */
+    private static boolean isWorse(double score, long order, double otherScore, long otherOrder) {
+        if (score != otherScore) {
+            return score < otherScore;
+        }
+        return order > otherOrder;
+    }
+    
+    /**
+     * Gets the combined score a candidate must reach to be kept
+     * @return The lowest kept score, or negative infinity while the collector is not full
+     */
+    public double getThreshold() {
+        if (capacity == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return heap.size() < capacity ? Double.NEGATIVE_INFINITY : heap.peek().candidate.getCombinedScore();
+    }
+    
+    /**
+     * Offers every candidate of another collector to this one
+     * @param other The collector to merge in
+     */
+    public void addAll(TopCandidateCollector other) {
+        for (Entry entry : other.heap) {
+            offer(entry);
+        }
+    }
+    
+    /**
+     * Gets the number of candidates kept
+     * @return The number of candidates
+     */
+    public int size() {
+        return heap.size();
+    }
+    
+    /**
+     * Gets the kept candidates ordered from best to worst
+     * @return The candidates, best first
+     */
+    public List<DecryptionCandidate> getCandidatesBestFirst() {
+        List<Entry> entries = new ArrayList<>(heap);
+        entries.sort(heap.comparator());
+        Collections.reverse(entries);
+        
+        List<DecryptionCandidate> candidates = new ArrayList<>();
+        for (Entry entry : entries) {
+            candidates.add(entry.candidate);
+        }
+        return candidates;
+    }
+}
\ No newline at end of file
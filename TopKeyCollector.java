@@ -0,0 +1,202 @@
+/**
+ * Bounded collection of the best-scoring keys
+ * Keys are stored as primitive indices in a min-heap of fixed capacity, so memory
+ * stays constant however many keys are offered. Equal scores are ranked by an optional
+ * tie-break score, then prefer the lower key index, which keeps results in key order and
+ * independent of thread scheduling
+ */
+public class TopKeyCollector {
+    
+    private final long[] keys;
+    private final double[] scores;
+    private final double[] tieBreaks;
+    private int size;
+    
+    /**
+     * Creates an empty collector
+     * @param capacity The number of keys to keep
+     */
+    public TopKeyCollector(int capacity) {
+        this.keys = new long[Math.max(0, capacity)];
+        this.scores = new double[Math.max(0, capacity)];
+        this.tieBreaks = new double[Math.max(0, capacity)];
+        this.size = 0;
+    }
+    
+    /**
+     * Offers a key to the collector
+     * @param key The key index
+     * @param score The score of the key
+     * @return True if the key was kept
+     */
+    public boolean offer(long key, double score) {
+        return offer(key, score, 0.0);
+    }
+    
+    /**
+     * Offers a key to the collector with a score that ranks it among keys of equal score
+     * @param key The key index
+     * @param score The score of the key
+     * @param tieBreak Higher values rank first among equal scores
+     * @return True if the key was kept
+     */
+    public boolean offer(long key, double score, double tieBreak) {
+        if (size < keys.length) {
+            // Not full yet, append and restore the heap upwards
+            int position = size++;
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (!isWorseThanKept(key, score, tieBreak, parent)) {
+                    break;
+                }
+                move(parent, position);
+                position = parent;
+            }
+            set(position, key, score, tieBreak);
+            return true;
+        }
+        
+        if (size == 0 || !isKeptWorse(0, key, score, tieBreak)) {
+            return false;
+        }
+        
+        // Replace the worst key at the root and restore the heap downwards
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isWorse(child + 1, child)) {
+                child++;
+            }
+            if (!isKeptWorse(child, key, score, tieBreak)) {
+                break;
+            }
+            move(child, position);
+            position = child;
+        }
+        set(position, key, score, tieBreak);
+        return true;
+    }
+    
+    /**
+     * Checks whether the first key ranks below the second
+     */
+    private static boolean isWorse(long key, double score, double tieBreak,
+                                   long otherKey, double otherScore, double otherTieBreak) {
+        if (score != otherScore) {
+            return score < otherScore;
+        }
+        if (tieBreak != otherTieBreak) {
+            return tieBreak < otherTieBreak;
+        }
+        return key > otherKey;
+    }
+    
+    /**
+     * Checks whether a new key ranks below the kept key at a heap position
+     */
+    private boolean isWorseThanKept(long key, double score, double tieBreak, int position) {
+        return isWorse(key, score, tieBreak, keys[position], scores[position], tieBreaks[position]);
+    }
+    
+    /**
+     * Checks whether the kept key at a heap position ranks below a new key
+     */
+    private boolean isKeptWorse(int position, long key, double score, double tieBreak) {
+        return isWorse(keys[position], scores[position], tieBreaks[position], key, score, tieBreak);
+    }
+    
+    /**
+     * Checks whether the kept key at one heap position ranks below the one at another
+     */
+    private boolean isWorse(int position, int otherPosition) {
+        return isWorse(keys[position], scores[position], tieBreaks[position],
+                       keys[otherPosition], scores[otherPosition], tieBreaks[otherPosition]);
+    }
+    
+    /**
+     * Moves a kept key to another heap position
+     */
+    private void move(int from, int to) {
+        set(to, keys[from], scores[from], tieBreaks[from]);
+    }
+    
+    /**
+     * Stores a key at a heap position
+     */
+    private void set(int position, long key, double score, double tieBreak) {
+        keys[position] = key;
+        scores[position] = score;
+        tieBreaks[position] = tieBreak;
+    }
+    
+    /**
+     * Gets the score a key must beat to be kept
+     * @return The lowest kept score, or negative infinity while the collector is not full
+     */
+    public double getThreshold() {
+        if (keys.length == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return size < keys.length ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+    
+    /**
+     * Offers every key of another collector to this one
+     * @param other The collector to merge in
+     */
+    public void addAll(TopKeyCollector other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.keys[i], other.scores[i], other.tieBreaks[i]);
+        }
+    }
+    
+    /**
+     * Gets the number of keys kept
+     * @return The number of keys
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Gets the kept keys ordered from best to worst
+     * @return The key indices, best first
+     */
+    public long[] getKeysBestFirst() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        java.util.Arrays.sort(order, (x, y) -> isWorse(x, y) ? 1 : isWorse(y, x) ? -1 : 0);
+        
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = keys[order[i]];
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the indices of the highest scores, best first
+     * Ties keep the lower index first so results follow key order
+     * @param scores The score of each index
+     * @param count The number of indices to return
+     * @return The indices of the best count scores, best first
+     */
+    public static int[] topIndices(double[] scores, int count) {
+        TopKeyCollector collector = new TopKeyCollector(count);
+        for (int i = 0; i < scores.length; i++) {
+            collector.offer(i, scores[i]);
+        }
+        
+        long[] keys = collector.getKeysBestFirst();
+        int[] best = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            best[i] = (int) keys[i];
+        }
+        return best;
+    }
+}
\ No newline at end of file
@@ -2,9 +2,11 @@
  * Implementation of the Vigenère cipher
  * Uses a repeating key to shift characters by different amounts
  */
-public class VigenereCipher {
+public class VigenereCipher implements Cipher {
     
     private String key;
+    private SubstitutionTable[] tables;  // Decryption table per key character, null if not in alphabet
+    private byte[][] indexMaps;          // Index tables of the above, for the encoded path
     
     /**
      * Creates a Vigenère cipher with the specified key
@@ -12,6 +14,11 @@ public class VigenereCipher {
      */
     public VigenereCipher(String key) {
         this.key = key;
+        this.tables = KeyCompiler.vigenere(key);
+        this.indexMaps = new byte[tables.length][];
+        for (int i = 0; i < tables.length; i++) {
+            indexMaps[i] = tables[i] == null ? null : tables[i].getIndexMap();
+        }
     }
     
     /**
@@ -19,6 +26,7 @@ public class VigenereCipher {
      * @param plaintext The text to encrypt
      * @return The encrypted text
      */
+    @Override
     public String encrypt(String plaintext) {
         StringBuilder ciphertext = new StringBuilder();
         int keyIndex = 0;
@@ -56,30 +64,23 @@ public class VigenereCipher {
      * @param ciphertext The text to decrypt
      * @return The decrypted text
      */
+    @Override
     public String decrypt(String ciphertext) {
-        StringBuilder plaintext = new StringBuilder();
+        StringBuilder plaintext = new StringBuilder(ciphertext.length());
         int keyIndex = 0;
         
         for (char c : ciphertext.toCharArray()) {
-            if (c == ' ') {
-                // Spaces pass through unchanged
+            if (c == ' ' || CipherUtils.getAlphabetIndex(c) == -1) {
+                // Spaces and characters not in the alphabet pass through unchanged
                 plaintext.append(c);
             } else {
-                int charIndex = CipherUtils.getAlphabetIndex(c);
-                if (charIndex != -1) {
-                    // Character is in our alphabet, shift it back by the key character
-                    char keyChar = key.charAt(keyIndex % key.length());
-                    int keyShift = CipherUtils.getAlphabetIndex(keyChar);
-                    if (keyShift != -1) {
-                        int newIndex = (charIndex - keyShift + CipherUtils.getAlphabetSize()) % CipherUtils.getAlphabetSize();
-                        plaintext.append(CipherUtils.getAlphabetChar(newIndex));
-                        keyIndex++;
-                    } else {
-                        // Key character not in alphabet, treat as no shift
-                        plaintext.append(c);
-                    }
+                // Character is in our alphabet, look it up in the table for the key character
+                SubstitutionTable table = tables[keyIndex % tables.length];
+                if (table != null) {
+                    plaintext.append(table.map(c));
+                    keyIndex++;
                 } else {
-                    // Character not in alphabet, pass through unchanged
+                    // Key character not in alphabet, treat as no shift
                     plaintext.append(c);
                 }
             }
@@ -88,10 +89,42 @@ public class VigenereCipher {
         return plaintext.toString();
     }
     
+    /**
+     * Decrypts pre-encoded text into a reusable buffer
+     * @param encoded The encoded ciphertext
+     * @param out The output buffer for the decrypted alphabet indices
+     */
+    @Override
+    public void decryptInto(EncodedText encoded, byte[] out) {
+        byte[] indices = encoded.getIndices();
+        int keyIndex = 0;
+        
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            if (index == EncodedText.PASS_THROUGH) {
+                out[i] = EncodedText.PASS_THROUGH;
+            } else {
+                byte[] indexMap = indexMaps[keyIndex];
+                if (indexMap != null) {
+                    out[i] = indexMap[index];
+                    // Advance through the key without a modulo per character
+                    keyIndex++;
+                    if (keyIndex == indexMaps.length) {
+                        keyIndex = 0;
+                    }
+                } else {
+                    // Key character not in alphabet, treat as no shift
+                    out[i] = EncodedText.PASS_THROUGH;
+                }
+            }
+        }
+    }
+    
     /**
      * Gets the key for this cipher
      * @return The key string
      */
+    @Override
     public String getKey() {
         return key;
     }
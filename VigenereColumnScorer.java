@@ -0,0 +1,165 @@
+/**
+ * Letter-frequency scoring of Vigenère keys from per-column histograms
+ * For a key of length L the ciphertext splits into L columns, each decrypted by a single
+ * Caesar shift, so the plaintext letter histogram of any key is the sum of one rotated
+ * column histogram per key character. The rotated columns are computed once per file
+ * and key length, and every key is then scored with array additions only, giving the
+ * exact LetterFrequencyHeuristic score without producing any decrypted text
+ */
+public class VigenereColumnScorer {
+    
+    private final int keyLength;
+    private final int[][][] columnLetters;  // [column][shift][letter] letter counts after decryption
+    private final int[][] columnTotals;     // [column][shift] total letters after decryption
+    private final int[] passThroughLetters; // Letters outside the alphabet, which no key changes
+    private final int passThroughTotal;
+    
+    /**
+     * Builds the column histograms of an encoded ciphertext for one key length
+     * @param encoded The encoded ciphertext
+     * @param keyLength The key length
+     */
+    public VigenereColumnScorer(EncodedText encoded, int keyLength) {
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        this.keyLength = keyLength;
+        this.passThroughLetters = new int[26];
+        
+        // Histogram of each column over alphabet indices; the key only advances on alphabet characters
+        int[][] columnCounts = new int[keyLength][alphabetSize];
+        byte[] indices = encoded.getIndices();
+        int column = 0;
+        int total = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] != EncodedText.PASS_THROUGH) {
+                columnCounts[column][indices[i]]++;
+                column++;
+                if (column == keyLength) {
+                    column = 0;
+                }
+            } else {
+                int letter = LetterFrequencyHeuristic.letterIndex(encoded.charAt(i));
+                if (letter != -1) {
+                    passThroughLetters[letter]++;
+                    total++;
+                }
+            }
+        }
+        this.passThroughTotal = total;
+        
+        // Rotate each column through every shift and fold it down to letter counts
+        this.columnLetters = new int[keyLength][alphabetSize][26];
+        this.columnTotals = new int[keyLength][alphabetSize];
+        for (int c = 0; c < keyLength; c++) {
+            for (int shift = 0; shift < alphabetSize; shift++) {
+                byte[] indexMap = KeyCompiler.caesar(shift).getIndexMap();
+                for (int index = 0; index < alphabetSize; index++) {
+                    int count = columnCounts[c][index];
+                    if (count != 0) {
+                        int letter = LetterFrequencyHeuristic.letterIndex(CipherUtils.getAlphabetChar(indexMap[index]));
+                        if (letter != -1) {
+                            columnLetters[c][shift][letter] += count;
+                            columnTotals[c][shift] += count;
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gets the key length this scorer was built for
+     * @return The key length
+     */
+    public int getKeyLength() {
+        return keyLength;
+    }
+    
+    /**
+     * Scores a single key
+     * Gives the same value as LetterFrequencyHeuristic.analyze on the decrypted text
+     * @param shifts The alphabet index of each key character
+     * @return The letter frequency score between 0.0 and 1.0
+     */
+    public double score(int[] shifts) {
+        int[] letterCounts = passThroughLetters.clone();
+        int totalLetters = passThroughTotal;
+        for (int c = 0; c < keyLength; c++) {
+            int[] letters = columnLetters[c][shifts[c]];
+            for (int letter = 0; letter < 26; letter++) {
+                letterCounts[letter] += letters[letter];
+            }
+            totalLetters += columnTotals[c][shifts[c]];
+        }
+        return score(letterCounts, totalLetters);
+    }
+    
+    /**
+     * Scores every key whose characters come from the given choices, restricted to
+     * keys whose first character is a single choice so callers can split the work
+     * Key indices are mixed-radix numbers over the choices, first character most significant
+     * @param choices The alphabet index of each allowed key character
+     * @param firstChoice The position in choices of the first key character
+     * @param collector Receives every key index with its score
+     */
+    public void scoreKeys(int[] choices, int firstChoice, TopKeyCollector collector) {
+        // partial[d] holds the letter counts of the first d columns
+        int[][] partial = new int[keyLength + 1][];
+        int[] partialTotals = new int[keyLength + 1];
+        for (int d = 0; d <= keyLength; d++) {
+            partial[d] = new int[26];
+        }
+        System.arraycopy(passThroughLetters, 0, partial[0], 0, 26);
+        partialTotals[0] = passThroughTotal;
+        
+        addColumn(partial, partialTotals, 0, choices[firstChoice]);
+        if (keyLength == 1) {
+            collector.offer(firstChoice, score(partial[1], partialTotals[1]));
+        } else {
+            scoreColumn(choices, 1, firstChoice, partial, partialTotals, collector);
+        }
+    }
+    
+    /**
+     * Enumerates the choices for one column on top of the prefix already summed
+     */
+    private void scoreColumn(int[] choices, int column, long prefix, int[][] partial,
+                             int[] partialTotals, TopKeyCollector collector) {
+        for (int choice = 0; choice < choices.length; choice++) {
+            long key = prefix * choices.length + choice;
+            if (column == keyLength - 1) {
+                // Repeated shorter keys are scored under their canonical key instead
+                if (KeySpace.isCanonicalVigenere(key, keyLength, choices.length)) {
+                    addColumn(partial, partialTotals, column, choices[choice]);
+                    collector.offer(key, score(partial[keyLength], partialTotals[keyLength]));
+                }
+            } else {
+                addColumn(partial, partialTotals, column, choices[choice]);
+                scoreColumn(choices, column + 1, key, partial, partialTotals, collector);
+            }
+        }
+    }
+    
+    /**
+     * Sets partial[column + 1] to partial[column] plus one rotated column
+     */
+    private void addColumn(int[][] partial, int[] partialTotals, int column, int shift) {
+        int[] from = partial[column];
+        int[] to = partial[column + 1];
+        int[] letters = columnLetters[column][shift];
+        for (int letter = 0; letter < 26; letter++) {
+            to[letter] = from[letter] + letters[letter];
+        }
+        partialTotals[column + 1] = partialTotals[column] + columnTotals[column][shift];
+    }
+    
+    /**
+     * Converts letter counts to the letter frequency score
+     */
+    private static double score(int[] letterCounts, int totalLetters) {
+        if (totalLetters == 0) {
+            return 0.0;
+        }
+        return LetterFrequencyHeuristic.scoreChiSquared(
+            LetterFrequencyHeuristic.chiSquared(letterCounts, totalLetters));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+import java.util.Random;
+
+/**
+ * Stochastic hill-climbing search for long Vigenère keys
+ * Starting from a random key, each key column in turn is set to the shift that gives
+ * the best fitness with the other columns fixed, until no column improves. Fitness is
+ * the trigram log-probability of the decryption plus the weighted log-probability of
+ * each decrypted symbol; the trigrams ignore case, so the symbol term is what tells a key
+ * character from the one 26 places away and penalizes digits and punctuation.
+ * Only the trigrams around the changed column's positions are rescored, so one sweep
+ * costs O(alphabet size x text length). Independent restarts escape local optima
+ */
+public class VigenereHillClimber {
+    
+    // Same weighting of the symbol frequencies as SubstitutionHillClimber
+    private static final double SYMBOL_WEIGHT = 3.0;
+    
+    private final NgramFitness fitness;
+    private final int keyLength;
+    private final byte[] cipherIndices;
+    private final int[] fixedSymbols;      // Symbols of pass-through positions
+    private final int[][] columnPositions; // Text positions decrypted by each key column
+    private final double[][] symbolScores; // Weighted symbol log-probability of each column under each shift
+    
+    /**
+     * Creates a climber for one key length
+     * @param encoded The encoded ciphertext
+     * @param keyLength The key length
+     */
+    public VigenereHillClimber(EncodedText encoded, int keyLength) {
+        this.fitness = NgramFitness.english();
+        this.keyLength = keyLength;
+        this.cipherIndices = encoded.getIndices();
+        this.fixedSymbols = new int[cipherIndices.length];
+        
+        // The key only advances on alphabet characters
+        int[] columnSizes = new int[keyLength];
+        int column = 0;
+        for (int i = 0; i < cipherIndices.length; i++) {
+            if (cipherIndices[i] != EncodedText.PASS_THROUGH) {
+                columnSizes[column]++;
+                column = (column + 1) % keyLength;
+            } else {
+                fixedSymbols[i] = NgramFitness.symbolOf(encoded.charAt(i));
+            }
+        }
+        this.columnPositions = new int[keyLength][];
+        for (int c = 0; c < keyLength; c++) {
+            columnPositions[c] = new int[columnSizes[c]];
+        }
+        int[] filled = new int[keyLength];
+        column = 0;
+        for (int i = 0; i < cipherIndices.length; i++) {
+            if (cipherIndices[i] != EncodedText.PASS_THROUGH) {
+                columnPositions[column][filled[column]++] = i;
+                column = (column + 1) % keyLength;
+            }
+        }
+        
+        // The symbol term of a column only depends on its shift, so it is computed once
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        this.symbolScores = new double[keyLength][alphabetSize];
+        for (int shift = 0; shift < alphabetSize; shift++) {
+            byte[] indexMap = KeyCompiler.caesar(shift).getIndexMap();
+            for (int c = 0; c < keyLength; c++) {
+                double total = 0.0;
+                for (int position : columnPositions[c]) {
+                    total += VigenereSolver.symbolLogProbability(indexMap[cipherIndices[position]]);
+                }
+                symbolScores[c][shift] = SYMBOL_WEIGHT * total;
+            }
+        }
+    }
+    
+    /**
+     * Runs one restart from a random key until no single column change improves it
+     * @param seed The seed of the random starting key
+     * @return The alphabet index of each character of the best key found
+     */
+    public int[] climb(long seed) {
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        Random random = new Random(seed);
+        int[] shifts = new int[keyLength];
+        int[] symbols = fixedSymbols.clone();
+        for (int c = 0; c < keyLength; c++) {
+            shifts[c] = random.nextInt(alphabetSize);
+            setColumn(symbols, c, shifts[c]);
+        }
+        
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int c = 0; c < keyLength; c++) {
+                // Score every shift of this column against the current neighbours
+                int bestShift = shifts[c];
+                double bestScore = columnScore(symbols, c) + symbolScores[c][shifts[c]];
+                for (int shift = 0; shift < alphabetSize; shift++) {
+                    if (shift == shifts[c]) {
+                        continue;
+                    }
+                    setColumn(symbols, c, shift);
+                    double score = columnScore(symbols, c) + symbolScores[c][shift];
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestShift = shift;
+                    }
+                }
+                setColumn(symbols, c, bestShift);
+                if (bestShift != shifts[c]) {
+                    shifts[c] = bestShift;
+                    improved = true;
+                }
+            }
+        }
+        return shifts;
+    }
+    
+    /**
+     * Gets the fitness of the full decryption under a key
+     * @param shifts The alphabet index of each key character
+     * @return The sum of the trigram and weighted symbol log-probabilities
+     */
+    public double score(int[] shifts) {
+        int[] symbols = fixedSymbols.clone();
+        double total = 0.0;
+        for (int c = 0; c < keyLength; c++) {
+            setColumn(symbols, c, shifts[c]);
+            total += symbolScores[c][shifts[c]];
+        }
+        return total + fitness.score(symbols);
+    }
+    
+    /**
+     * Decrypts one key column into the symbol array
+     */
+    private void setColumn(int[] symbols, int column, int shift) {
+        byte[] indexMap = KeyCompiler.caesar(shift).getIndexMap();
+        for (int position : columnPositions[column]) {
+            symbols[position] = NgramFitness.symbolOfIndex(indexMap[cipherIndices[position]]);
+        }
+    }
+    
+    /**
+     * Sums the trigrams that include a position of one key column
+     * Trigrams shared by neighbouring positions of the column are only counted once
+     */
+    private double columnScore(int[] symbols, int column) {
+        double total = 0.0;
+        int last = symbols.length - 3;
+        int counted = -1;  // Last trigram start already added
+        for (int position : columnPositions[column]) {
+            for (int start = Math.max(Math.max(0, position - 2), counted + 1); start <= Math.min(position, last); start++) {
+                total += fitness.score(symbols[start], symbols[start + 1], symbols[start + 2]);
+                counted = start;
+            }
+        }
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,341 @@
+/**
+ * Walks a Vigenère key space in odometer order with incremental rescoring
+ * Each step changes the last key character (and occasionally carries into earlier ones),
+ * so only the text positions of the changed key columns are re-decrypted. The letter
+ * histogram and the dictionary hit counts are updated for those positions and the words
+ * containing them, and give the same scores as LetterFrequencyHeuristic and
+ * DictionaryHeuristic on the full decrypted text
+ */
+public class VigenereOdometer {
+    
+    // What each alphabet character becomes after DictionaryHeuristic's cleaning (0 if removed)
+    private static final char[] ALPHABET_CLEANED = new char[CipherUtils.getAlphabetSize()];
+    // Letter each alphabet character counts as for LetterFrequencyHeuristic, -1 if none
+    private static final int[] ALPHABET_LETTERS = new int[CipherUtils.getAlphabetSize()];
+    static {
+        for (int i = 0; i < ALPHABET_CLEANED.length; i++) {
+            char c = CipherUtils.getAlphabetChar(i);
+            String cleaned = clean(c);
+            ALPHABET_CLEANED[i] = cleaned.isEmpty() ? 0 : cleaned.charAt(0);
+            ALPHABET_LETTERS[i] = LetterFrequencyHeuristic.letterIndex(c);
+        }
+    }
+    
+    private final int keyLength;
+    private final int[] choices;
+    private final int[] digits;
+    private final byte[] cipherIndices;
+    private final byte[] plainIndices;
+    private final char[] plaintext;
+    private final int[][] columnPositions;  // Text positions decrypted by each key column
+    
+    // Letter frequency state
+    private final int[] passThroughLetters = new int[26];
+    private int passThroughTotal;
+    private final int[] letterCounts = new int[26];
+    private int totalLetters;
+    
+    // Dictionary state, one entry per whitespace-delimited segment of the text
+    private final WordLayout layout;
+    private final int[] wordStarts;
+    private final int[] wordEnds;
+    private final String[] passThroughPieces;  // Cleaned form of each pass-through character
+    private final int[][] columnWords;          // Segments containing positions of each key column
+    private final boolean[] wordCounted;
+    private final boolean[] wordValid;
+    private final int[] wordStamps;
+    private int stamp;
+    private int totalWords;
+    private int validWords;
+    private final char[] wordChars;  // Scratch space for the cleaned word being rescored
+    
+    /**
+     * Creates an odometer over all keys of one length built from the given characters
+     * Key indices are mixed-radix numbers over the choices, first character most significant
+     * @param encoded The encoded ciphertext
+     * @param keyLength The key length
+     * @param choices The alphabet index of each allowed key character
+     */
+    public VigenereOdometer(EncodedText encoded, int keyLength, int[] choices) {
+        this.keyLength = keyLength;
+        this.choices = choices;
+        this.digits = new int[keyLength];
+        this.cipherIndices = encoded.getIndices();
+        int length = encoded.length();
+        this.plainIndices = new byte[length];
+        this.plaintext = new char[length];
+        this.passThroughPieces = new String[length];
+        
+        // Assign positions to key columns; the key only advances on alphabet characters
+        int[] columnSizes = new int[keyLength];
+        int column = 0;
+        for (int i = 0; i < length; i++) {
+            if (cipherIndices[i] != EncodedText.PASS_THROUGH) {
+                columnSizes[column]++;
+                column = (column + 1) % keyLength;
+            }
+        }
+        this.columnPositions = new int[keyLength][];
+        for (int c = 0; c < keyLength; c++) {
+            columnPositions[c] = new int[columnSizes[c]];
+        }
+        int[] filled = new int[keyLength];
+        int[] columnOf = new int[length];
+        column = 0;
+        for (int i = 0; i < length; i++) {
+            if (cipherIndices[i] != EncodedText.PASS_THROUGH) {
+                columnPositions[column][filled[column]++] = i;
+                columnOf[i] = column;
+                column = (column + 1) % keyLength;
+            } else {
+                // Pass-through characters never change, so count them once here
+                char c = encoded.charAt(i);
+                plaintext[i] = c;
+                plainIndices[i] = EncodedText.PASS_THROUGH;
+                passThroughPieces[i] = clean(c);
+                int letter = LetterFrequencyHeuristic.letterIndex(c);
+                if (letter != -1) {
+                    passThroughLetters[letter]++;
+                    passThroughTotal++;
+                }
+            }
+        }
+        
+        // Segments between the tokenizer's delimiters, which always pass through
+        this.layout = encoded.getWordLayout();
+        int wordCount = layout.getSegmentCount();
+        this.wordStarts = new int[wordCount];
+        this.wordEnds = new int[wordCount];
+        int[] wordOf = new int[length];
+        java.util.Arrays.fill(wordOf, -1);
+        for (int word = 0; word < wordCount; word++) {
+            wordStarts[word] = layout.getStart(word);
+            wordEnds[word] = layout.getEnd(word);
+            java.util.Arrays.fill(wordOf, wordStarts[word], wordEnds[word], word);
+        }
+        
+        // For each key column, the distinct segments it touches
+        this.columnWords = new int[keyLength][];
+        for (int c = 0; c < keyLength; c++) {
+            int[] touched = new int[columnPositions[c].length];
+            int count = 0;
+            int last = -1;
+            for (int position : columnPositions[c]) {
+                if (wordOf[position] != last) {
+                    last = wordOf[position];
+                    touched[count++] = last;
+                }
+            }
+            columnWords[c] = java.util.Arrays.copyOf(touched, count);
+        }
+        
+        // Each position cleans to at most its piece length (alphabet characters to at most one)
+        int longestWord = 0;
+        for (int w = 0; w < wordCount; w++) {
+            int wordLength = 0;
+            for (int i = wordStarts[w]; i < wordEnds[w]; i++) {
+                wordLength += passThroughPieces[i] == null ? 1 : passThroughPieces[i].length();
+            }
+            longestWord = Math.max(longestWord, wordLength);
+        }
+        this.wordChars = new char[longestWord];
+        
+        this.wordCounted = new boolean[wordCount];
+        this.wordValid = new boolean[wordCount];
+        this.wordStamps = new int[wordCount];
+    }
+    
+    /**
+     * Moves to a key and fully decrypts and rescores the text
+     * @param keyIndex The mixed-radix index of the key
+     */
+    public void seek(long keyIndex) {
+        for (int position = keyLength - 1; position >= 0; position--) {
+            digits[position] = (int) (keyIndex % choices.length);
+            keyIndex /= choices.length;
+        }
+        System.arraycopy(passThroughLetters, 0, letterCounts, 0, 26);
+        totalLetters = passThroughTotal;
+        for (int c = 0; c < keyLength; c++) {
+            setColumn(c, false);
+        }
+        
+        totalWords = 0;
+        validWords = 0;
+        for (int word = 0; word < wordStarts.length; word++) {
+            wordCounted[word] = false;
+            wordValid[word] = false;
+            rescoreWord(word);
+        }
+    }
+    
+    /**
+     * Moves to the next key in odometer order, re-decrypting only the changed columns
+     * @return False if the key space wrapped around to the first key
+     */
+    public boolean advance() {
+        // Step the last digit and carry into earlier ones, re-decrypting each changed column
+        int position = keyLength - 1;
+        boolean wrapped = true;
+        while (position >= 0) {
+            digits[position]++;
+            boolean carry = digits[position] == choices.length;
+            if (carry) {
+                digits[position] = 0;
+            }
+            setColumn(position, true);
+            if (!carry) {
+                wrapped = false;
+                break;
+            }
+            position--;
+        }
+        
+        // Rescore each word touched by a changed column once, after all columns are updated
+        stamp++;
+        for (int column = Math.max(position, 0); column < keyLength; column++) {
+            for (int word : columnWords[column]) {
+                if (wordStamps[word] != stamp) {
+                    wordStamps[word] = stamp;
+                    rescoreWord(word);
+                }
+            }
+        }
+        return !wrapped;
+    }
+    
+    /**
+     * Re-decrypts one key column and updates the letter histogram
+     * @param column The key column
+     * @param replacing True if the column currently holds a decryption whose letters are counted
+     */
+    private void setColumn(int column, boolean replacing) {
+        byte[] indexMap = KeyCompiler.caesar(choices[digits[column]]).getIndexMap();
+        for (int position : columnPositions[column]) {
+            int oldLetter = replacing ? ALPHABET_LETTERS[plainIndices[position]] : -1;
+            int newIndex = indexMap[cipherIndices[position]];
+            int newLetter = ALPHABET_LETTERS[newIndex];
+            if (oldLetter != newLetter) {
+                if (oldLetter != -1) {
+                    letterCounts[oldLetter]--;
+                    totalLetters--;
+                }
+                if (newLetter != -1) {
+                    letterCounts[newLetter]++;
+                    totalLetters++;
+                }
+            }
+            plainIndices[position] = (byte) newIndex;
+            plaintext[position] = CipherUtils.getAlphabetChar(newIndex);
+        }
+    }
+    
+    /**
+     * Rebuilds one segment's cleaned word and updates the dictionary counts
+     */
+    private void rescoreWord(int word) {
+        int length = 0;
+        for (int i = wordStarts[word]; i < wordEnds[word]; i++) {
+            if (plainIndices[i] == EncodedText.PASS_THROUGH) {
+                String piece = passThroughPieces[i];
+                for (int j = 0; j < piece.length(); j++) {
+                    wordChars[length++] = piece.charAt(j);
+                }
+            } else {
+                char cleaned = ALPHABET_CLEANED[plainIndices[i]];
+                if (cleaned != 0) {
+                    wordChars[length++] = cleaned;
+                }
+            }
+        }
+        
+        // Same test as DictionaryHeuristic applies to each token, including its trim()
+        int start = 0;
+        int end = length;
+        while (start < end && wordChars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && wordChars[end - 1] <= ' ') {
+            end--;
+        }
+        boolean counted = end > start;
+        boolean valid = counted && layout.isMatchable(word)
+                        && DictionaryHeuristic.isDictionaryWord(wordChars, start, end - start);
+        
+        if (counted != wordCounted[word]) {
+            totalWords += counted ? 1 : -1;
+            wordCounted[word] = counted;
+        }
+        if (valid != wordValid[word]) {
+            validWords += valid ? 1 : -1;
+            wordValid[word] = valid;
+        }
+    }
+    
+    /**
+     * Gets the letter frequency score of the current decryption
+     * @return The same value as LetterFrequencyHeuristic.analyze on the decrypted text
+     */
+    public double getLetterFrequencyScore() {
+        if (totalLetters == 0) {
+            return 0.0;
+        }
+        return LetterFrequencyHeuristic.scoreChiSquared(
+            LetterFrequencyHeuristic.chiSquared(letterCounts, totalLetters));
+    }
+    
+    /**
+     * Gets the dictionary score of the current decryption
+     * @return The same value as DictionaryHeuristic.analyze on the decrypted text
+     */
+    public double getDictionaryScore() {
+        return totalWords == 0 ? 0.0 : (double) validWords / totalWords;
+    }
+    
+    /**
+     * Gets the log-probability of the current decryption's cipher-alphabet symbols
+     * Unlike the heuristic scores it tells case apart, so it ranks keys whose decryptions
+     * only differ in case, digits or punctuation. It is summed over the whole text on each
+     * call rather than kept up to date, so the odometer steps do not pay for it
+     * @return The sum of VigenereSolver.symbolLogProbability over the decrypted symbols
+     */
+    public double getSymbolLogProbability() {
+        // Summed column by column, so equal decryptions always give the same rounding
+        double total = 0.0;
+        for (int[] positions : columnPositions) {
+            double columnTotal = 0.0;
+            for (int position : positions) {
+                columnTotal += VigenereSolver.symbolLogProbability(plainIndices[position]);
+            }
+            total += columnTotal;
+        }
+        return total;
+    }
+    
+    /**
+     * Gets the current key
+     * @return The key string
+     */
+    public String getKey() {
+        char[] key = new char[keyLength];
+        for (int position = 0; position < keyLength; position++) {
+            key[position] = CipherUtils.getAlphabetChar(choices[digits[position]]);
+        }
+        return new String(key);
+    }
+    
+    /**
+     * Gets the current decryption
+     * @return The decrypted text
+     */
+    public String getPlaintext() {
+        return new String(plaintext);
+    }
+    
+    /**
+     * Applies DictionaryHeuristic's lowercasing and character filter to one character
+     */
+    private static String clean(char c) {
+        return String.valueOf(c).toLowerCase().replaceAll("[^a-zA-Z\\s]", "");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,228 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vigenère solver that recovers keys without enumerating the key space
+ * Likely key lengths are estimated from the index of coincidence of the key columns
+ * and the Kasiski spacing of repeated trigrams. For each likely length every key column
+ * is then solved on its own as a Caesar problem, which is O(L x alphabet size) work per
+ * length and works for any key characters and lengths beyond four
+ */
+public class VigenereSolver {
+    
+    // Minimum average number of characters per column for a key length to be considered
+    private static final int MIN_COLUMN_SIZE = 3;
+    
+    // Log-probability of each alphabet symbol in English plaintext, used to solve columns
+    private static final double[] SYMBOL_LOG_PROBABILITIES = new double[CipherUtils.getAlphabetSize()];
+    static {
+        // Letters follow English frequencies, mostly lowercase; digits and punctuation are rare
+        double[] letterPercents = {8.12, 1.49, 2.78, 4.25, 12.02, 2.23, 2.02, 6.09, 6.97, 0.15, 0.77, 4.03, 2.41,
+                                   6.75, 7.51, 1.93, 0.10, 5.99, 6.33, 9.06, 2.76, 0.98, 2.36, 0.15, 1.97, 0.07};
+        for (int i = 0; i < SYMBOL_LOG_PROBABILITIES.length; i++) {
+            char c = CipherUtils.getAlphabetChar(i);
+            double probability;
+            if (c >= 'a' && c <= 'z') {
+                probability = 0.92 * letterPercents[c - 'a'] / 100.0;
+            } else if (c >= 'A' && c <= 'Z') {
+                probability = 0.04 * letterPercents[c - 'A'] / 100.0;
+            } else if (c >= '0' && c <= '9') {
+                probability = 0.02 / 10;
+            } else {
+                probability = 0.02 / 6;
+            }
+            SYMBOL_LOG_PROBABILITIES[i] = Math.log(probability);
+        }
+    }
+    
+    private final byte[] stream;  // Alphabet indices only; the key advances on exactly these
+    
+    /**
+     * Creates a solver for an encoded ciphertext
+     * @param encoded The encoded ciphertext
+     */
+    public VigenereSolver(EncodedText encoded) {
+        byte[] indices = encoded.getIndices();
+        this.stream = new byte[encoded.getAlphabetCount()];
+        int position = 0;
+        for (byte index : indices) {
+            if (index != EncodedText.PASS_THROUGH) {
+                stream[position++] = index;
+            }
+        }
+    }
+    
+    /**
+     * Calculates the average index of coincidence of the key columns for a key length
+     * @param keyLength The key length
+     * @return The average index of coincidence over columns with at least two characters
+     */
+    public double indexOfCoincidence(int keyLength) {
+        int[][] counts = columnCounts(keyLength);
+        double total = 0.0;
+        int columns = 0;
+        
+        for (int c = 0; c < keyLength; c++) {
+            int size = 0;
+            long pairs = 0;
+            for (int count : counts[c]) {
+                size += count;
+                pairs += (long) count * (count - 1);
+            }
+            if (size >= 2) {
+                total += (double) pairs / ((long) size * (size - 1));
+                columns++;
+            }
+        }
+        
+        return columns == 0 ? 0.0 : total / columns;
+    }
+    
+    /**
+     * Calculates the Kasiski support for each key length
+     * Distances between repeated trigrams tend to be multiples of the key length
+     * @param maxKeyLength The largest key length to report
+     * @return For each key length, the fraction of repeat distances it divides (index 0 unused)
+     */
+    public double[] kasiskiSupport(int maxKeyLength) {
+        double[] support = new double[maxKeyLength + 1];
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        int[] lastSeen = new int[alphabetSize * alphabetSize * alphabetSize];
+        Arrays.fill(lastSeen, -1);
+        int distances = 0;
+        
+        for (int i = 0; i + 3 <= stream.length; i++) {
+            int trigram = (stream[i] * alphabetSize + stream[i + 1]) * alphabetSize + stream[i + 2];
+            if (lastSeen[trigram] != -1) {
+                int distance = i - lastSeen[trigram];
+                distances++;
+                for (int keyLength = 1; keyLength <= maxKeyLength; keyLength++) {
+                    if (distance % keyLength == 0) {
+                        support[keyLength]++;
+                    }
+                }
+            }
+            lastSeen[trigram] = i;
+        }
+        
+        if (distances > 0) {
+            for (int keyLength = 1; keyLength <= maxKeyLength; keyLength++) {
+                support[keyLength] /= distances;
+            }
+        }
+        return support;
+    }
+    
+    /**
+     * Estimates the most likely key lengths
+     * Each length is ranked by its index of coincidence, boosted by its Kasiski support
+     * @param maxKeyLength The largest key length to consider
+     * @param count The number of lengths to return
+     * @return The most likely key lengths, best first
+     */
+    public int[] likelyKeyLengths(int maxKeyLength, int count) {
+        // Columns need a few characters each for the statistics to mean anything
+        int limit = Math.max(1, Math.min(maxKeyLength, stream.length / MIN_COLUMN_SIZE));
+        double[] support = kasiskiSupport(limit);
+        
+        double[] scores = new double[limit];
+        for (int keyLength = 1; keyLength <= limit; keyLength++) {
+            scores[keyLength - 1] = indexOfCoincidence(keyLength) * (1.0 + support[keyLength]);
+        }
+        
+        int[] best = TopKeyCollector.topIndices(scores, count);
+        for (int i = 0; i < best.length; i++) {
+            best[i]++;
+        }
+        return best;
+    }
+    
+    /**
+     * Gets the log-probability of an alphabet symbol in English plaintext
+     * @param index The alphabet index of the symbol
+     * @return The natural log of its probability
+     */
+    public static double symbolLogProbability(int index) {
+        return SYMBOL_LOG_PROBABILITIES[index];
+    }
+    
+    /**
+     * Solves each key column independently as a Caesar problem
+     * @param keyLength The key length
+     * @return For each column, every shift ordered from most to least likely
+     */
+    public int[][] rankColumnShifts(int keyLength) {
+        int[][] counts = columnCounts(keyLength);
+        int alphabetSize = CipherUtils.getAlphabetSize();
+        int[][] ranked = new int[keyLength][];
+        double[] scores = new double[alphabetSize];
+        
+        for (int c = 0; c < keyLength; c++) {
+            for (int shift = 0; shift < alphabetSize; shift++) {
+                byte[] indexMap = KeyCompiler.caesar(shift).getIndexMap();
+                double logLikelihood = 0.0;
+                for (int index = 0; index < alphabetSize; index++) {
+                    if (counts[c][index] != 0) {
+                        logLikelihood += counts[c][index] * SYMBOL_LOG_PROBABILITIES[indexMap[index]];
+                    }
+                }
+                scores[shift] = logLikelihood;
+            }
+            ranked[c] = TopKeyCollector.topIndices(scores, alphabetSize);
+        }
+        return ranked;
+    }
+    
+    /**
+     * Proposes candidate keys for a key length
+     * The first key uses the best shift of every column; each further key swaps
+     * a single column to its second-best shift
+     * @param keyLength The key length
+     * @return The candidate keys, most likely first
+     */
+    public List<String> candidateKeys(int keyLength) {
+        int[][] ranked = rankColumnShifts(keyLength);
+        List<String> keys = new ArrayList<>();
+        
+        char[] key = new char[keyLength];
+        for (int c = 0; c < keyLength; c++) {
+            key[c] = CipherUtils.getAlphabetChar(ranked[c][0]);
+        }
+        keys.add(shortestPeriod(new String(key)));
+        
+        for (int c = 0; c < keyLength; c++) {
+            char[] variant = key.clone();
+            variant[c] = CipherUtils.getAlphabetChar(ranked[c][1]);
+            keys.add(shortestPeriod(new String(variant)));
+        }
+        return keys;
+    }
+    
+    /**
+     * Reduces a periodic key to its repeating unit, e.g. "moremore" to "more"
+     * Both keys decrypt identically, since the key repeats over the text anyway
+     * @param key The key to reduce
+     * @return The shortest key that repeats to form the given key
+     */
+    public static String shortestPeriod(String key) {
+        int length = key.length();
+        for (int period = 1; period < length; period++) {
+            if (length % period == 0 && key.regionMatches(0, key, period, length - period)) {
+                return key.substring(0, period);
+            }
+        }
+        return key;
+    }
+    
+    /**
+     * Counts the alphabet indices in each key column
+     */
+    private int[][] columnCounts(int keyLength) {
+        int[][] counts = new int[keyLength][CipherUtils.getAlphabetSize()];
+        for (int i = 0; i < stream.length; i++) {
+            counts[i % keyLength][stream[i]]++;
+        }
+        return counts;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Work-stealing task that sweeps a range of Vigenère keys of one length
+ * Large ranges are split in half and forked, so idle workers steal the remaining halves.
+ * Each leaf walks its range with a VigenereOdometer, ranks keys by the sum of the
+ * incremental letter frequency and dictionary scores, breaking ties by the symbol
+ * log-probability of the decryption, and keeps only the best keys in a bounded collector;
+ * repeated shorter keys are walked over but never ranked, and the hot path allocates
+ * nothing per key
+ */
+public class VigenereSweepTask extends RecursiveTask<TopKeyCollector> {
+    
+    private static final long serialVersionUID = 1L;
+    
+    // Ranges at or below this many keys are swept directly instead of being split
+    private static final long LEAF_SIZE = 4096;
+    
+    private final EncodedText encoded;
+    private final int keyLength;
+    private final int[] choices;
+    private final long start;
+    private final long end;
+    private final int capacity;
+    private final AtomicLong testedKeys;
+    private final ProgressBar progressBar;
+    
+    /**
+     * Creates a task for the keys with indices in [start, end)
+     * @param encoded The encoded ciphertext
+     * @param keyLength The key length
+     * @param choices The alphabet index of each allowed key character
+     * @param start The first key index
+     * @param end One past the last key index
+     * @param capacity The number of best keys to keep
+     * @param testedKeys Shared counter of swept keys
+     * @param progressBar The progress bar to update
+     */
+    public VigenereSweepTask(EncodedText encoded, int keyLength, int[] choices, long start, long end,
+                             int capacity, AtomicLong testedKeys, ProgressBar progressBar) {
+        this.encoded = encoded;
+        this.keyLength = keyLength;
+        this.choices = choices;
+        this.start = start;
+        this.end = end;
+        this.capacity = capacity;
+        this.testedKeys = testedKeys;
+        this.progressBar = progressBar;
+    }
+    
+    @Override
+    protected TopKeyCollector compute() {
+        if (end - start > LEAF_SIZE) {
+            long middle = (start + end) >>> 1;
+            VigenereSweepTask left = new VigenereSweepTask(encoded, keyLength, choices, start, middle,
+                                                           capacity, testedKeys, progressBar);
+            VigenereSweepTask right = new VigenereSweepTask(encoded, keyLength, choices, middle, end,
+                                                            capacity, testedKeys, progressBar);
+            left.fork();
+            TopKeyCollector collector = right.compute();
+            collector.addAll(left.join());
+            return collector;
+        }
+        
+        TopKeyCollector collector = new TopKeyCollector(capacity);
+        VigenereOdometer odometer = new VigenereOdometer(encoded, keyLength, choices);
+        odometer.seek(start);
+        for (long keyIndex = start; keyIndex < end; keyIndex++) {
+            if (keyIndex > start) {
+                odometer.advance();
+            }
+            if (!KeySpace.isCanonicalVigenere(keyIndex, keyLength, choices.length)) {
+                continue;
+            }
+            
+            // Both scores ignore case, so keys whose decryptions differ only in case tie;
+            // the symbol log-probability ranks the likeliest decryption first. It is only
+            // computed for keys that reach the collector's threshold
+            double score = odometer.getLetterFrequencyScore() + odometer.getDictionaryScore();
+            if (score >= collector.getThreshold()) {
+                collector.offer(keyIndex, score, odometer.getSymbolLogProbability());
+            }
+        }
+        
+        progressBar.updateProgress((int) testedKeys.addAndGet(end - start));
+        return collector;
+    }
+}
\ No newline at end of file
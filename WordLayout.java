@@ -0,0 +1,132 @@
+/**
+ * Word layout of a ciphertext, shared by every decryption of it
+ * Word delimiters are spaces and other whitespace, which pass through every cipher,
+ * so all decryptions split into words at the same positions. The layout records those
+ * segments once per file, together with which of them could ever hold a dictionary word,
+ * so word-level scoring neither searches for delimiters nor looks up hopeless words
+ */
+public class WordLayout {
+    
+    // Word delimiters of the default StringTokenizer
+    private static final String DELIMITERS = " \t\n\r\f";
+    
+    private final int[] starts;
+    private final int[] ends;
+    private final boolean[] matchable;
+    private final int[] matchableAfter;
+    
+    /**
+     * Finds the word segments of an encoded ciphertext
+     * @param encoded The encoded ciphertext
+     */
+    public WordLayout(EncodedText encoded) {
+        int length = encoded.length();
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!isDelimiter(encoded, i) && (i == 0 || isDelimiter(encoded, i - 1))) {
+                count++;
+            }
+        }
+        starts = new int[count];
+        ends = new int[count];
+        matchable = new boolean[count];
+        matchableAfter = new int[count];
+        
+        int segment = 0;
+        int position = 0;
+        while (position < length) {
+            if (isDelimiter(encoded, position)) {
+                position++;
+                continue;
+            }
+            starts[segment] = position;
+            
+            // Every alphabet character cleans to at most one letter, and every letter
+            // passing through stays in the word after trimming
+            int longest = 0;
+            int fixedLetters = 0;
+            while (position < length && !isDelimiter(encoded, position)) {
+                if (!encoded.isPassThrough(position)) {
+                    longest++;
+                } else {
+                    char cleaned = AnalyzedText.cleanChar(encoded.charAt(position));
+                    if (cleaned != 0) {
+                        longest++;
+                    }
+                    if (cleaned > ' ') {
+                        fixedLetters++;
+                    }
+                }
+                position++;
+            }
+            ends[segment] = position;
+            matchable[segment] = longest >= DictionaryHeuristic.getShortestWordLength()
+                                 && fixedLetters <= DictionaryHeuristic.getLongestWordLength();
+            segment++;
+        }
+        
+        // Count, for each segment, the segments after it that could still match
+        int after = 0;
+        for (int s = count - 1; s >= 0; s--) {
+            matchableAfter[s] = after;
+            if (matchable[s]) {
+                after++;
+            }
+        }
+    }
+    
+    /**
+     * Checks whether a position always splits words: a delimiter passing through
+     * @param encoded The encoded text
+     * @param position The position to check
+     * @return True if the character at the position is a pass-through delimiter
+     */
+    static boolean isDelimiter(EncodedText encoded, int position) {
+        return encoded.isPassThrough(position) && DELIMITERS.indexOf(encoded.charAt(position)) != -1;
+    }
+    
+    /**
+     * Gets the number of segments between delimiters
+     * @return The number of segments
+     */
+    public int getSegmentCount() {
+        return starts.length;
+    }
+    
+    /**
+     * Gets where a segment starts in the text
+     * @param segment The segment number
+     * @return The position of its first character
+     */
+    public int getStart(int segment) {
+        return starts[segment];
+    }
+    
+    /**
+     * Gets where a segment ends in the text
+     * @param segment The segment number
+     * @return One past the position of its last character
+     */
+    public int getEnd(int segment) {
+        return ends[segment];
+    }
+    
+    /**
+     * Checks whether a segment can hold a dictionary word under some key
+     * Segments too short or with too many fixed letters never do
+     * @param segment The segment number
+     * @return False if no decryption makes the segment a dictionary word
+     */
+    public boolean isMatchable(int segment) {
+        return matchable[segment];
+    }
+    
+    /**
+     * Gets how many of the later segments can hold a dictionary word
+     * @param segment The segment number
+     * @return The number of matchable segments after this one
+     */
+    public int getMatchableAfter(int segment) {
+        return matchableAfter[segment];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,332 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Word-pattern attack on monoalphabetic substitution
+ * Spaces pass through every cipher, so each ciphertext word keeps its length and its
+ * letter-repetition pattern. Each word can only be a dictionary word with the same
+ * pattern (lowercase or capitalized), and the words must agree on one consistent,
+ * one-to-one symbol mapping. The solver assigns words in order of fewest remaining
+ * candidates, and after every assignment filters the candidates of all other words
+ * against the mapping so far, so contradicting branches are dropped before anything is
+ * decrypted. Words may also stay unmatched, since not every word is in the dictionary;
+ * the solver keeps the mappings that cover the most ciphertext letters with dictionary
+ * words, preferring lowercase matches
+ */
+public class WordPatternSolver {
+    
+    private static final int SIZE = CipherUtils.getAlphabetSize();
+    
+    // Search nodes explored before the best mappings so far are returned
+    private static final long NODE_LIMIT = 200000;
+    
+    private final int[] counts;         // Occurrences of each ciphertext symbol
+    private final int[][] words;        // Distinct ciphertext words as alphabet indices
+    private final int[][][] candidates; // Plaintext alphabet indices of each word's candidates
+    private final int[][] weights;      // Ciphertext letters each candidate covers, doubled, less one if capitalized
+    private final int[] bestWeights;    // Highest candidate weight of each word
+    
+    // Search state
+    private final int[] plainOf = new int[SIZE];
+    private final int[] cipherOf = new int[SIZE];
+    private final List<int[]> solutions = new ArrayList<>();
+    private int maxSolutions;
+    private int bestWeight;
+    private long visitedNodes;
+    
+    /**
+     * Splits the ciphertext into words and looks up the candidates of each
+     * @param encoded The encoded ciphertext
+     */
+    public WordPatternSolver(EncodedText encoded) {
+        this.counts = new int[SIZE];
+        byte[] indices = encoded.getIndices();
+        
+        // Words are the runs of alphabet characters between pass-through characters
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<String> wordTexts = new ArrayList<>();
+        List<int[]> wordList = new ArrayList<>();
+        List<int[][]> candidateList = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= indices.length; i++) {
+            boolean inWord = i < indices.length && indices[i] != EncodedText.PASS_THROUGH;
+            if (inWord) {
+                counts[indices[i]]++;
+                if (start == -1) {
+                    start = i;
+                }
+            } else if (start != -1) {
+                String word = encoded.getText().substring(start, i);
+                if (occurrences.merge(word, 1, Integer::sum) > 1) {
+                    start = -1;
+                    continue;
+                }
+                int[][] wordCandidates = candidatesFor(word);
+                if (wordCandidates.length > 0) {
+                    int[] wordIndices = new int[word.length()];
+                    for (int j = 0; j < wordIndices.length; j++) {
+                        wordIndices[j] = indices[start + j];
+                    }
+                    wordTexts.add(word);
+                    wordList.add(wordIndices);
+                    candidateList.add(wordCandidates);
+                }
+                start = -1;
+            }
+        }
+        this.words = wordList.toArray(new int[0][]);
+        this.candidates = candidateList.toArray(new int[0][][]);
+        
+        // Longer and repeated words say more about the mapping
+        this.weights = new int[words.length][];
+        this.bestWeights = new int[words.length];
+        for (int w = 0; w < words.length; w++) {
+            int covered = 2 * words[w].length * occurrences.get(wordTexts.get(w));
+            weights[w] = new int[candidates[w].length];
+            for (int c = 0; c < weights[w].length; c++) {
+                boolean capitalized = Character.isUpperCase(CipherUtils.getAlphabetChar(candidates[w][c][0]));
+                weights[w][c] = capitalized ? covered - 1 : covered;
+                bestWeights[w] = Math.max(bestWeights[w], weights[w][c]);
+            }
+        }
+    }
+    
+    /**
+     * Lists the dictionary words, lowercase or capitalized, that have a word's pattern
+     */
+    private static int[][] candidatesFor(String word) {
+        String pattern = DictionaryHeuristic.wordPattern(word);
+        List<String> matches = new ArrayList<>(DictionaryHeuristic.getWordsWithPattern(pattern));
+        
+        // Capitalizing makes the first letter unique, so also look up every lowercase
+        // pattern where the first letter repeats at a later class of this pattern
+        boolean firstUnique = pattern.indexOf(pattern.charAt(0), 1) == -1;
+        if (firstUnique) {
+            for (String lower : DictionaryHeuristic.getWordsWithPattern(pattern)) {
+                matches.add(Character.toUpperCase(lower.charAt(0)) + lower.substring(1));
+            }
+            for (char label = 'B'; pattern.indexOf(label) != -1; label++) {
+                String merged = DictionaryHeuristic.wordPattern(label + pattern.substring(1));
+                for (String lower : DictionaryHeuristic.getWordsWithPattern(merged)) {
+                    matches.add(Character.toUpperCase(lower.charAt(0)) + lower.substring(1));
+                }
+            }
+        }
+        
+        int[][] result = new int[matches.size()][];
+        for (int m = 0; m < result.length; m++) {
+            result[m] = new int[word.length()];
+            for (int j = 0; j < word.length(); j++) {
+                result[m][j] = CipherUtils.getAlphabetIndex(matches.get(m).charAt(j));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Searches for the mappings that match the most ciphertext words
+     * Symbols the matched words leave open are filled in by frequency: the most frequent
+     * open ciphertext symbols get the most likely unused plaintext symbols
+     * @param maxSolutions The number of mappings to return at most
+     * @return The decrypted alphabet index of each ciphertext alphabet index, for each
+     *         best mapping; empty if no word has a dictionary candidate
+     */
+    public List<int[]> solve(int maxSolutions) {
+        this.maxSolutions = maxSolutions;
+        this.bestWeight = 0;
+        this.visitedNodes = 0;
+        solutions.clear();
+        Arrays.fill(plainOf, -1);
+        Arrays.fill(cipherOf, -1);
+        
+        if (words.length == 0) {
+            return new ArrayList<>();
+        }
+        int[][] live = new int[words.length][];
+        for (int w = 0; w < words.length; w++) {
+            live[w] = new int[candidates[w].length];
+            for (int c = 0; c < live[w].length; c++) {
+                live[w][c] = c;
+            }
+        }
+        search(live, 0);
+        
+        List<int[]> completed = new ArrayList<>();
+        for (int[] solution : solutions) {
+            completed.add(complete(solution));
+        }
+        return completed;
+    }
+    
+    /**
+     * Gets the number of search nodes explored by the last solve
+     * @return The number of nodes
+     */
+    public long getVisitedNodes() {
+        return visitedNodes;
+    }
+    
+    /**
+     * Gets the number of ciphertext letters covered by dictionary words under the best
+     * mappings of the last solve
+     * @return The number of covered letters
+     */
+    public int getCoveredLetters() {
+        return (bestWeight + 1) / 2;
+    }
+    
+    /**
+     * Gets the number of distinct ciphertext words that have dictionary candidates
+     * @return The number of words
+     */
+    public int getWordCount() {
+        return words.length;
+    }
+    
+    /**
+     * Matches or skips the undecided word with the fewest live candidates
+     * live[w] holds the candidates of word w consistent with the mapping so far,
+     * or null once the word is decided
+     */
+    private void search(int[][] live, int weight) {
+        if (++visitedNodes > NODE_LIMIT) {
+            return;
+        }
+        
+        // Only words with live candidates can still be matched
+        int possible = 0;
+        int pick = -1;
+        for (int w = 0; w < live.length; w++) {
+            if (live[w] != null && live[w].length > 0) {
+                possible += bestWeights[w];
+                if (pick == -1 || live[w].length < live[pick].length) {
+                    pick = w;
+                }
+            }
+        }
+        if (weight + possible < bestWeight) {
+            return;
+        }
+        if (pick == -1) {
+            record(weight);
+            return;
+        }
+        
+        int[] changed = new int[words[pick].length];
+        for (int c : live[pick]) {
+            int changes = assign(words[pick], candidates[pick][c], changed);
+            int[][] next = new int[live.length][];
+            for (int w = 0; w < live.length; w++) {
+                if (w != pick && live[w] != null) {
+                    next[w] = filter(w, live[w]);
+                }
+            }
+            search(next, weight + weights[pick][c]);
+            for (int i = 0; i < changes; i++) {
+                cipherOf[plainOf[changed[i]]] = -1;
+                plainOf[changed[i]] = -1;
+            }
+        }
+        
+        // Leave the word unmatched
+        int[][] next = live.clone();
+        next[pick] = null;
+        search(next, weight);
+    }
+    
+    /**
+     * Keeps the candidates of a word that are consistent with the mapping so far
+     */
+    private int[] filter(int w, int[] live) {
+        int[] kept = new int[live.length];
+        int size = 0;
+        for (int c : live) {
+            if (consistent(words[w], candidates[w][c])) {
+                kept[size++] = c;
+            }
+        }
+        return size == live.length ? live : Arrays.copyOf(kept, size);
+    }
+    
+    /**
+     * Checks that a candidate neither remaps a ciphertext symbol nor reuses a plaintext symbol
+     */
+    private boolean consistent(int[] word, int[] candidate) {
+        for (int i = 0; i < word.length; i++) {
+            int mapped = plainOf[word[i]];
+            if (mapped != candidate[i] && (mapped != -1 || cipherOf[candidate[i]] != -1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Adds a consistent candidate to the mapping
+     * @return The number of newly mapped ciphertext symbols, stored in changed
+     */
+    private int assign(int[] word, int[] candidate, int[] changed) {
+        int changes = 0;
+        for (int i = 0; i < word.length; i++) {
+            if (plainOf[word[i]] == -1) {
+                plainOf[word[i]] = candidate[i];
+                cipherOf[candidate[i]] = word[i];
+                changed[changes++] = word[i];
+            }
+        }
+        return changes;
+    }
+    
+    /**
+     * Records the current mapping if it covers at least as much as the best so far
+     */
+    private void record(int weight) {
+        if (weight > bestWeight) {
+            bestWeight = weight;
+            solutions.clear();
+        }
+        if (weight == bestWeight && solutions.size() < maxSolutions) {
+            for (int[] solution : solutions) {
+                if (Arrays.equals(solution, plainOf)) {
+                    return;
+                }
+            }
+            solutions.add(plainOf.clone());
+        }
+    }
+    
+    /**
+     * Fills the open symbols of a partial mapping by frequency
+     */
+    private int[] complete(int[] partial) {
+        int[] mapping = partial.clone();
+        boolean[] used = new boolean[SIZE];
+        for (int p : mapping) {
+            if (p != -1) {
+                used[p] = true;
+            }
+        }
+        
+        double[] openCounts = new double[SIZE];
+        double[] openLikelihoods = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            openCounts[i] = mapping[i] == -1 ? counts[i] : Double.NEGATIVE_INFINITY;
+            openLikelihoods[i] = used[i] ? Double.NEGATIVE_INFINITY : VigenereSolver.symbolLogProbability(i);
+        }
+        int open = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (mapping[i] == -1) {
+                open++;
+            }
+        }
+        int[] cipherOrder = TopKeyCollector.topIndices(openCounts, open);
+        int[] plainOrder = TopKeyCollector.topIndices(openLikelihoods, open);
+        for (int i = 0; i < open; i++) {
+            mapping[cipherOrder[i]] = plainOrder[i];
+        }
+        return mapping;
+    }
+}
\ No newline at end of file